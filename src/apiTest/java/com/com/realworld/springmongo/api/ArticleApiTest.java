@@ -86,6 +86,53 @@ class ArticleApiTest {
                 .isEqualTo(preparation.getArticles().get(1));
     }
 
+    @Test
+    void shouldFindArticlesByTagContainingComma() {
+        articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
+                .setTitle("comma tag")
+                .setTagList(List.of("comma,tag")), user.getToken());
+        articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
+                .setTitle("comma and tag")
+                .setTagList(List.of("comma", "tag")), user.getToken());
+
+        var byTag = articleApi.findArticles(new FindArticlesRequest().setTag("comma,tag")).getResponseBody();
+        var byTags = articleApi.findArticles(new FindArticlesRequest().setTags("comma,tag")).getResponseBody();
+
+        assert byTag != null && byTags != null;
+        assertThat(byTag.getArticles()).extracting(ArticleView::getTitle).containsExactly("comma tag");
+        assertThat(byTags.getArticles()).extracting(ArticleView::getTitle).containsExactly("comma and tag");
+    }
+
+    @Test
+    void shouldStreamArticlesAsNdjson() {
+        var author = userApi.signup(UserSamples.sampleUserRegistrationRequest()
+                .setUsername("streaming username")
+                .setEmail("streaming@gmail.com"));
+        assert author != null;
+        articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
+                .setTitle("should-stream-articles-1"), author.getToken());
+        articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
+                .setTitle("should-stream-articles-2"), author.getToken());
+
+        var articles = articleApi.streamArticles(new FindArticlesRequest().setAuthor(author.getUsername()));
+
+        assert articles != null;
+        assertThat(articles)
+                .extracting(ArticleView::getTitle)
+                .containsExactly("should-stream-articles-2", "should-stream-articles-1");
+    }
+
+    @Test
+    void shouldFindNoArticlesOfUnknownAuthor() {
+        articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
+                .setTitle("should-find-no-articles-of-unknown-author"), user.getToken());
+
+        var articles = articleApi.findArticles(new FindArticlesRequest().setAuthor("unknown author")).getResponseBody();
+
+        assert articles != null;
+        assertThat(articles.getArticlesCount()).isZero();
+    }
+
     @Test
     void shouldReturnFeed() {
         var follower = userApi.signup();
@@ -145,6 +192,29 @@ class ArticleApiTest {
         assertThat(updatedArticle.getTitle()).isEqualTo(updateArticleRequest.getTitle());
     }
 
+    @Test
+    void shouldNotUpdateArticleWithStaleVersion() {
+        var article = articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
+                .setTitle("should-not-update-stale-article"), user.getToken());
+        assert article != null;
+        var firstUpdate = new UpdateArticleRequest()
+                .setBody("first body")
+                .setVersion(article.getVersion());
+        var staleUpdate = new UpdateArticleRequest()
+                .setBody("stale body")
+                .setVersion(article.getVersion());
+
+        var updatedArticle = articleApi.updateArticle(article.getSlug(), firstUpdate, user.getToken());
+        var staleArticle = articleApi.updateArticle(article.getSlug(), staleUpdate, user.getToken());
+
+        assert updatedArticle != null;
+        assertThat(updatedArticle.getVersion()).isEqualTo(article.getVersion() + 1);
+        assertThat(staleArticle).isNull();
+        var actual = articleApi.getArticle(article.getSlug(), user.getToken());
+        assert actual != null;
+        assertThat(actual.getContent().getBody()).isEqualTo("first body");
+    }
+
     @Test
     void shouldDeleteArticle() {
         var article = articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
@@ -183,6 +253,22 @@ class ArticleApiTest {
         articleApi.deleteComment(article.getSlug(), commentView.getId(), user.getToken());
     }
 
+    @Test
+    void shouldIgnoreCommentOfAnotherArticle() {
+        var article = articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
+                .setTitle("should-keep-comment"), user.getToken());
+        var otherArticle = articleApi.createArticle(ArticleSamples.sampleCreateArticleRequest()
+                .setTitle("should-not-delete-comment"), user.getToken());
+        assert article != null && otherArticle != null;
+        var commentView = articleApi.addComment(article.getSlug(), "test comment", user.getToken());
+
+        var result = articleApi.deleteComment(otherArticle.getSlug(), commentView.getId(), user.getToken());
+
+        assertThat(result.getStatus().is2xxSuccessful()).isTrue();
+        assertThat(articleApi.getComments(article.getSlug(), user.getToken()).getResponseBody().getComments())
+                .containsExactly(commentView);
+    }
+
     @Test
     void shouldGetComments() {
         userApi.follow(user.getUsername(), user.getToken());
@@ -218,7 +304,7 @@ class ArticleApiTest {
     }
 
     @Test
-    void shouldGetTags() {
+    void shouldGetTags() throws InterruptedException {
         var request1 = ArticleSamples.sampleCreateArticleRequest()
                 .setTitle("should-get-tags-1")
                 .setTagList(List.of("tag1", "tag2", "tag2"));
@@ -227,7 +313,12 @@ class ArticleApiTest {
                 .setTagList(List.of("tag3", "tag4", "tag3"));
         articleApi.createArticle(request1, user.getToken());
         articleApi.createArticle(request2, user.getToken());
+        // tags are written in the background after the article is created
         var tagListView = articleApi.getTags().getResponseBody();
+        for (var attempt = 0; attempt < 50 && !tagListView.getTags().containsAll(List.of("tag1", "tag2", "tag3", "tag4")); attempt++) {
+            Thread.sleep(100);
+            tagListView = articleApi.getTags().getResponseBody();
+        }
 
         assertThat(tagListView.getTags()).contains("tag1", "tag2", "tag3", "tag4");
     }
@@ -239,7 +330,7 @@ class ArticleApiTest {
                 .setEmail("testarticle@gmail.com"));
 
         var createArticleRequest1 = ArticleSamples.sampleCreateArticleRequest()
-                .setTitle("should-find-articles-2")
+                .setTitle("should-find-articles-1")
                 .setTagList(List.of(tag));
         var createArticleRequest2 = ArticleSamples.sampleCreateArticleRequest()
                 .setTitle("should-find-articles-2")
@@ -0,0 +1,94 @@
+package com.realworld.springmongo;
+
+import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.Comment;
+import com.realworld.springmongo.article.Tag;
+import com.realworld.springmongo.user.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.util.Streamable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Compares indexes declared on documents with the ones existing in the database and logs missing, undeclared and unused ones.
+ * Index usage is taken from $indexStats, which counts accesses since the last mongod restart only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class MongoIndexReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Article.class, Comment.class, User.class, Tag.class);
+    private static final String ID_INDEX_NAME = "_id_";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        var indexResolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        Flux.fromIterable(INDEXED_DOCUMENTS)
+                .concatMap(document -> report(document, indexResolver))
+                .subscribe(nothing -> {
+                }, error -> log.warn("Failed to build index report", error));
+    }
+
+    private Mono<Void> report(Class<?> document, IndexResolver indexResolver) {
+        var collectionName = mongoTemplate.getCollectionName(document);
+        var declaredIndexNames = Streamable.of(indexResolver.resolveIndexFor(document)).stream()
+                .map(this::indexName)
+                .collect(Collectors.toSet());
+        return mongoTemplate.getCollection(collectionName)
+                .flatMapMany(collection -> collection.aggregate(List.of(new Document("$indexStats", new Document()))))
+                .collectMap(stats -> stats.getString("name"), this::accessesCount)
+                .doOnNext(accessesByIndexName -> logReport(collectionName, declaredIndexNames, accessesByIndexName))
+                .then();
+    }
+
+    private void logReport(String collectionName, Set<String> declaredIndexNames, Map<String, Long> accessesByIndexName) {
+        declaredIndexNames.stream()
+                .filter(name -> !accessesByIndexName.containsKey(name))
+                .forEach(name -> log.warn("Missing index '{}' on collection '{}'", name, collectionName));
+        accessesByIndexName.forEach((name, accesses) -> {
+            if (ID_INDEX_NAME.equals(name)) {
+                return;
+            }
+            if (!declaredIndexNames.contains(name)) {
+                log.info("Undeclared index '{}' on collection '{}'", name, collectionName);
+            }
+            if (accesses == 0) {
+                log.info("Unused index '{}' on collection '{}'", name, collectionName);
+            }
+        });
+    }
+
+    private long accessesCount(Document indexStats) {
+        var accesses = indexStats.get("accesses", Document.class);
+        return ((Number) accesses.get("ops")).longValue();
+    }
+
+    /**
+     * Falls back to the name MongoDB generates for unnamed indexes, e.g. "authorId_1_createdAt_-1".
+     */
+    private String indexName(IndexDefinition definition) {
+        return ofNullable(definition.getIndexOptions().getString("name"))
+                .orElseGet(() -> definition.getIndexKeys().entrySet().stream()
+                        .map(key -> key.getKey() + "_" + key.getValue())
+                        .collect(Collectors.joining("_")));
+    }
+}
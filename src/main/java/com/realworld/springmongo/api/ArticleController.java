@@ -6,6 +6,7 @@ import com.realworld.springmongo.api.wrappers.ArticleWrapper.UpdateArticleReques
 import com.realworld.springmongo.api.wrappers.CommentWrapper.CommentViewWrapper;
 import com.realworld.springmongo.api.wrappers.CommentWrapper.CreateCommentRequestWrapper;
 import com.realworld.springmongo.article.ArticleFacade;
+import com.realworld.springmongo.article.dto.ArticleView;
 import com.realworld.springmongo.article.dto.MultipleArticlesView;
 import com.realworld.springmongo.article.dto.MultipleCommentsView;
 import com.realworld.springmongo.article.dto.TagListView;
@@ -13,7 +14,10 @@ import com.realworld.springmongo.user.UserSessionProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Optional;
@@ -40,28 +44,79 @@ public class ArticleController {
             @RequestParam(value = "offset", defaultValue = "0") int offset,
             @RequestParam(value = "limit", defaultValue = "20") int limit,
             @RequestParam(value = "tag", required = false) String tag,
+            @RequestParam(value = "tags", required = false) String tags,
+            @RequestParam(value = "tagMode", required = false) String tagMode,
             @RequestParam(value = "favorited", required = false) String favoritedByUser,
-            @RequestParam(value = "author", required = false) String author
+            @RequestParam(value = "author", required = false) String author,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
         return userSessionProvider.getCurrentUserOrEmpty()
-                .flatMap(currentUser -> articleFacade.findArticles(tag, author, favoritedByUser, offset, limit, Optional.of(currentUser)))
-                .switchIfEmpty(articleFacade.findArticles(tag, author, favoritedByUser, offset, limit, Optional.empty()));
+                .flatMap(currentUser -> articleFacade.findArticles(tag, tags, tagMode, author, favoritedByUser, cursor, offset, limit, Optional.of(currentUser)))
+                .switchIfEmpty(Mono.defer(() -> articleFacade.findArticles(tag, tags, tagMode, author, favoritedByUser, cursor, offset, limit, Optional.empty())));
+    }
+
+    /**
+     * Streams the articles of GET /articles one by one as newline delimited JSON or server-sent events.
+     */
+    @GetMapping(value = "/articles", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ArticleView> streamArticles(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "tag", required = false) String tag,
+            @RequestParam(value = "tags", required = false) String tags,
+            @RequestParam(value = "tagMode", required = false) String tagMode,
+            @RequestParam(value = "favorited", required = false) String favoritedByUser,
+            @RequestParam(value = "author", required = false) String author,
+            @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        return userSessionProvider.getCurrentUserOrEmpty()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMapMany(currentUser -> articleFacade.streamArticles(tag, tags, tagMode, author, favoritedByUser, cursor, offset, limit, currentUser));
+    }
+
+    @GetMapping("/articles/search")
+    public Mono<MultipleArticlesView> searchArticles(
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        return userSessionProvider.getCurrentUserOrEmpty()
+                .flatMap(currentUser -> articleFacade.searchArticles(query, offset, limit, Optional.of(currentUser)))
+                .switchIfEmpty(Mono.defer(() -> articleFacade.searchArticles(query, offset, limit, Optional.empty())));
     }
 
     @GetMapping("/articles/feed")
     public Mono<MultipleArticlesView> feed(
             @RequestParam(value = "offset", defaultValue = "0") int offset,
-            @RequestParam(value = "limit", defaultValue = "20") int limit
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        return userSessionProvider.getCurrentUserOrEmpty()
+                .flatMap(currentUser -> articleFacade.feed(cursor, offset, limit, currentUser));
+    }
+
+    @GetMapping(value = "/articles/feed", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ArticleView> streamFeed(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
         return userSessionProvider.getCurrentUserOrEmpty()
-                .flatMap(currentUser -> articleFacade.feed(offset, limit, currentUser));
+                .flatMapMany(currentUser -> articleFacade.streamFeed(cursor, offset, limit, currentUser));
+    }
+
+    @GetMapping(value = "/articles/feed/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ArticleView>> liveFeed() {
+        return userSessionProvider.getCurrentUserOrEmpty()
+                .flatMapMany(articleFacade::liveFeed);
     }
 
     @GetMapping("/articles/{slug}")
     public Mono<ArticleViewWrapper> getArticle(@PathVariable String slug) {
         return userSessionProvider.getCurrentUserOrEmpty()
                 .flatMap(currentUser -> articleFacade.getArticle(slug, Optional.of(currentUser)))
-                .switchIfEmpty(articleFacade.getArticle(slug, Optional.empty()))
+                .switchIfEmpty(Mono.defer(() -> articleFacade.getArticle(slug, Optional.empty())))
                 .map(ArticleViewWrapper::new);
     }
 
@@ -80,10 +135,14 @@ public class ArticleController {
 
 
     @GetMapping("/articles/{slug}/comments")
-    public Mono<MultipleCommentsView> getComments(@PathVariable String slug) {
+    public Mono<MultipleCommentsView> getComments(
+            @PathVariable String slug,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
         return userSessionProvider.getCurrentUserOrEmpty()
-                .flatMap(currentUser -> articleFacade.getComments(slug, Optional.of(currentUser)))
-                .switchIfEmpty(articleFacade.getComments(slug, Optional.empty()));
+                .flatMap(currentUser -> articleFacade.getComments(slug, offset, limit, Optional.of(currentUser)))
+                .switchIfEmpty(Mono.defer(() -> articleFacade.getComments(slug, offset, limit, Optional.empty())));
     }
 
     @PostMapping("/articles/{slug}/comments")
@@ -116,8 +175,16 @@ public class ArticleController {
                 .map(ArticleViewWrapper::new);
     }
 
-    @GetMapping("/tags")
-    public Mono<TagListView> getTags() {
-        return articleFacade.getTags();
+    @GetMapping(value = "/tags", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<byte[]> getTags(@RequestParam(value = "top", required = false) Integer top) {
+        return articleFacade.getTagsJson(top);
+    }
+
+    @GetMapping("/tags/suggest")
+    public Mono<TagListView> suggestTags(
+            @RequestParam(value = "prefix", defaultValue = "") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        return articleFacade.suggestTags(prefix, limit);
     }
 }
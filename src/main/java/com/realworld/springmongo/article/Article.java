@@ -4,18 +4,26 @@ import com.realworld.springmongo.user.User;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.lang.Nullable;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
 
 @Document
+@CompoundIndexes({
+        @CompoundIndex(name = Article.AUTHOR_ID_CREATED_AT_INDEX_NAME, def = "{'authorId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = Article.TAGS_CREATED_AT_INDEX_NAME, def = "{'tags': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = Article.CREATED_AT_INDEX_NAME, def = "{'createdAt': -1, '_id': -1}")
+})
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Article {
@@ -24,6 +32,25 @@ public class Article {
     public static final String ID_FIELD_NAME = "id";
     public static final String AUTHOR_ID_FIELD_NAME = "authorId";
     public static final String TAGS_FIELD_NAME = "tags";
+    public static final String SLUG_FIELD_NAME = "slug";
+    public static final String FAVORITES_COUNT_FIELD_NAME = "favoritesCount";
+    public static final String UPDATED_AT_FIELD_NAME = "updatedAt";
+    public static final String VERSION_FIELD_NAME = "version";
+
+    /**
+     * Index names of the newest-first order (createdAt desc, id desc), optionally prefixed with an equality filter.
+     */
+    public static final String AUTHOR_ID_CREATED_AT_INDEX_NAME = "authorId_createdAt_id";
+    public static final String TAGS_CREATED_AT_INDEX_NAME = "tags_createdAt_id";
+    public static final String CREATED_AT_INDEX_NAME = "createdAt_id";
+
+    /**
+     * Relevance weights of the fields in article search, shared by the text index and the in-process index.
+     */
+    public static final int TITLE_SEARCH_WEIGHT = 10;
+    public static final int TAGS_SEARCH_WEIGHT = 5;
+    public static final int DESCRIPTION_SEARCH_WEIGHT = 3;
+    public static final int BODY_SEARCH_WEIGHT = 1;
 
     @Getter
     @EqualsAndHashCode.Include
@@ -37,23 +64,25 @@ public class Article {
     private final Instant updatedAt;
 
     @Getter
+    @TextIndexed(weight = TAGS_SEARCH_WEIGHT)
     private final List<String> tags;
 
     @Getter
-    private final List<Comment> comments;
-
-    @Getter
+    @Indexed(unique = true)
     private String slug;
 
     @Getter
+    @TextIndexed(weight = TITLE_SEARCH_WEIGHT)
     private String title;
 
     @Getter
     @Setter
+    @TextIndexed(weight = DESCRIPTION_SEARCH_WEIGHT)
     private String description;
 
     @Getter
     @Setter
+    @TextIndexed(weight = BODY_SEARCH_WEIGHT)
     private String body;
 
     @Getter
@@ -63,6 +92,12 @@ public class Article {
     @Setter
     private String authorId;
 
+    /**
+     * Incremented by every partial update, articles written before the field existed have none stored and read as 0.
+     */
+    @Getter
+    private Long version;
+
     @Builder
     Article(String id,
             String title,
@@ -72,8 +107,7 @@ public class Article {
             @Nullable Instant updatedAt,
             @Nullable Integer favoritesCount,
             String authorId,
-            @Nullable List<String> tags,
-            @Nullable List<Comment> comments
+            @Nullable List<String> tags
     ) {
         this.id = id;
         setTitle(title);
@@ -84,23 +118,7 @@ public class Article {
         this.favoritesCount = ofNullable(favoritesCount).orElse(0);
         this.authorId = authorId;
         this.tags = ofNullable(tags).orElse(new ArrayList<>());
-        this.comments = ofNullable(comments).orElse(new ArrayList<>());
-    }
-
-    public void incrementFavoritesCount() {
-        favoritesCount++;
-    }
-
-    public void decrementFavoritesCount() {
-        favoritesCount--;
-    }
-
-    public void addComment(Comment comment) {
-        comments.add(comment);
-    }
-
-    public void deleteComment(Comment comment) {
-        comments.remove(comment);
+        this.version = 0L;
     }
 
     public void setTitle(String title) {
@@ -108,13 +126,7 @@ public class Article {
         this.slug = toSlug(title);
     }
 
-    public Optional<Comment> getCommentById(String commentId) {
-        return comments.stream()
-                .filter(comment -> comment.getId().equals(commentId))
-                .findFirst();
-    }
-
-    private String toSlug(String title) {
+    public static String toSlug(String title) {
         return title.toLowerCase().replaceAll("[&|\\uFE30-\\uFFA0’”\\s?,.]+", "-");
     }
 
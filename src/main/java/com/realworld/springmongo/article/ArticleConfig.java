@@ -0,0 +1,9 @@
+package com.realworld.springmongo.article;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({ArticleListingProperties.class, TimelineProperties.class, FavoritesCounterProperties.class, FavoritesCleanupProperties.class, TagCatalogueProperties.class, ArticleCountProperties.class, ArticleSearchProperties.class, LiveFeedProperties.class})
+public class ArticleConfig {
+}
@@ -0,0 +1,25 @@
+package com.realworld.springmongo.article;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@Value
+@ConfigurationProperties(prefix = "article.count-cache")
+@ConstructorBinding
+public class ArticleCountProperties {
+    /**
+     * How long a total count is reused, zero counts on every listing.
+     */
+    Duration ttl;
+    int maxEntries;
+
+    public ArticleCountProperties(@DefaultValue("10s") Duration ttl,
+                                  @DefaultValue("10000") int maxEntries) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+}
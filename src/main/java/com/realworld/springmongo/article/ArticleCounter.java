@@ -0,0 +1,111 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.change.ArticleChangedEvent;
+import com.realworld.springmongo.change.ChangesMissedEvent;
+import com.realworld.springmongo.change.UserChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts all articles matching a listing filter, cursor and paging aside. A count is reused for the TTL
+ * by every listing with the same filter, and a count still running is shared by the listings waiting for it.
+ * Counts are dropped as soon as this instance creates or deletes an article or changes favorites of a user,
+ * writes of other instances are seen from the change stream, or when the TTL ends without it.
+ */
+@Component
+@RequiredArgsConstructor
+class ArticleCounter {
+
+    private final ArticleRepository articleRepository;
+    private final ArticleCountProperties properties;
+
+    private final Map<Key, Entry> counts = new ConcurrentHashMap<>();
+
+    public Mono<Long> count(FindArticlesRequest request) {
+        if (properties.getTtl().isZero()) {
+            return countArticles(request);
+        }
+        if (counts.size() >= properties.getMaxEntries()) {
+            counts.clear();
+        }
+        var key = Key.of(request);
+        var now = System.nanoTime();
+        var entry = counts.compute(key, (it, current) -> current == null || current.isExpired(now)
+                ? new Entry(countArticles(request).cache(), now + properties.getTtl().toNanos())
+                : current);
+        return entry.getCount()
+                .doOnError(error -> counts.remove(key, entry));
+    }
+
+    public void invalidateAll() {
+        counts.clear();
+    }
+
+    public void invalidateFavoritedBy(String userId) {
+        counts.keySet().removeIf(key -> userId.equals(key.getFavoritedById()));
+    }
+
+    /**
+     * Only created and deleted articles change counts, updates keep them in the same listings.
+     */
+    @EventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (event.isInsert() || event.isDelete()) {
+            invalidateAll();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidateFavoritedBy(event.getDocumentId());
+    }
+
+    @EventListener
+    public void onChangesMissed(ChangesMissedEvent event) {
+        invalidateAll();
+    }
+
+    private Mono<Long> countArticles(FindArticlesRequest request) {
+        return articleRepository.countArticlesFilteredBy(request.getTags(),
+                request.getTagMode(),
+                request.getAuthorId(),
+                request.getFavoritedBy());
+    }
+
+    @Value
+    private static class Key {
+        Set<String> tags;
+        TagMode tagMode;
+        @Nullable
+        String authorId;
+        @Nullable
+        String favoritedById;
+
+        static Key of(FindArticlesRequest request) {
+            var favoritedBy = request.getFavoritedBy();
+            return new Key(Set.copyOf(request.getTags()),
+                    request.getTagMode(),
+                    request.getAuthorId(),
+                    favoritedBy == null ? null : favoritedBy.getId());
+        }
+    }
+
+    @Value
+    private static class Entry {
+        Mono<Long> count;
+        long expiresAtNanos;
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.exceptions.InvalidRequestException;
+import lombok.Value;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque keyset position in the newest-first article order: the (createdAt, id) of the last article of a page.
+ */
+@Value
+public class ArticleCursor {
+    private static final String SEPARATOR = ":";
+
+    Instant createdAt;
+    String id;
+
+    public static ArticleCursor of(Article article) {
+        return new ArticleCursor(article.getCreatedAt(), article.getId());
+    }
+
+    public static ArticleCursor of(ArticleSummary article) {
+        return new ArticleCursor(article.getCreatedAt(), article.getId());
+    }
+
+    public static ArticleCursor of(Timeline.Entry entry) {
+        return new ArticleCursor(entry.getCreatedAt(), entry.getArticleId());
+    }
+
+    /**
+     * Returns cursor of the page following the given one, or null when the page is the last one.
+     */
+    @Nullable
+    public static ArticleCursor nextPage(List<ArticleSummary> page, int limit) {
+        if (page.isEmpty() || page.size() < limit) {
+            return null;
+        }
+        return of(page.get(page.size() - 1));
+    }
+
+    @Nullable
+    public static ArticleCursor parseNullable(@Nullable String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        return parse(cursor);
+    }
+
+    public static ArticleCursor parse(String cursor) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separatorIndex = decoded.indexOf(SEPARATOR);
+            var createdAt = Instant.ofEpochMilli(Long.parseLong(decoded.substring(0, separatorIndex)));
+            var id = decoded.substring(separatorIndex + 1);
+            return new ArticleCursor(createdAt, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Cursor", "invalid", e);
+        }
+    }
+
+    public String encode() {
+        var raw = createdAt.toEpochMilli() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,14 +2,20 @@ package com.realworld.springmongo.article;
 
 import com.realworld.springmongo.article.dto.*;
 import com.realworld.springmongo.article.repository.ArticleRepository;
-import com.realworld.springmongo.article.repository.TagRepository;
 import com.realworld.springmongo.exceptions.InvalidRequestException;
 import com.realworld.springmongo.user.User;
+import com.realworld.springmongo.user.UserRepository;
 import com.realworld.springmongo.user.dto.ProfileView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,16 +25,34 @@ import static java.util.Optional.ofNullable;
 @RequiredArgsConstructor
 public class ArticleFacade {
 
+    private static final int MAX_TAG_SUGGESTIONS = 100;
+
     private final ArticleRepository articleRepository;
-    private final TagRepository tagRepository;
+    private final TagService tagService;
+    private final TagCatalogue tagCatalogue;
     private final CommentService commentService;
     private final ArticleMapper articleMapper;
     private final ArticlesFinder articlesFinder;
+    private final TimelineService timelineService;
+    private final UserRepository userRepository;
+    private final FavoritesCounter favoritesCounter;
+    private final ArticleCounter articleCounter;
+    private final ArticleSearchIndex articleSearchIndex;
+    private final ArticleSearcher articleSearcher;
+    private final LiveFeed liveFeed;
+
+    /**
+     * Tags are ordered by number of articles, most used first. When top is present only that many tags are returned.
+     */
+    public Mono<TagListView> getTags(@Nullable Integer top) {
+        return validateTop(top).then(tagCatalogue.getTags(top));
+    }
 
-    public Mono<TagListView> getTags() {
-        return tagRepository.findAll()
-                .collectList()
-                .map(TagListView::of);
+    /**
+     * Same as {@link #getTags(Integer)} but already written as JSON.
+     */
+    public Mono<byte[]> getTagsJson(@Nullable Integer top) {
+        return validateTop(top).then(tagCatalogue.getTagsJson(top));
     }
 
     public Mono<ArticleView> createArticle(CreateArticleRequest request, User author) {
@@ -39,28 +63,55 @@ public class ArticleFacade {
         var id = UUID.randomUUID().toString();
         var newArticle = request.toArticle(id, author.getId());
         return articleRepository.save(newArticle)
-                .flatMap(article -> saveTags(article).thenReturn(article))
+                .onErrorMap(DuplicateKeyException.class, e -> new InvalidRequestException("Title", "already in use", e))
+                .doOnNext(article -> {
+                    articleCounter.invalidateAll();
+                    articleSearchIndex.index(article);
+                    tagService.addArticleTagsInBackground(article.getTags());
+                    timelineService.pushInBackground(article);
+                })
+                .doOnNext(article -> liveFeed.publish(article, author))
                 .map(article -> {
                     var profileDto = ProfileView.toUnfollowedProfileView(author);
                     return ArticleView.toUnfavoredArticleView(article, profileDto);
                 });
     }
 
-    public Mono<Void> saveTags(Article article) {
-        return tagRepository.saveAllTags(article.getTags()).then();
+    public Mono<MultipleArticlesView> feed(@Nullable String cursor, int offset, int limit, User currentUser) {
+        return articlesFinder.findFeed(cursor, offset, limit, currentUser);
+    }
+
+    /**
+     * Pushes articles created from now on by authors the user follows, see {@link LiveFeed}.
+     */
+    public Flux<ServerSentEvent<ArticleView>> liveFeed(User currentUser) {
+        return liveFeed.connect(currentUser);
+    }
+
+    public Flux<ArticleView> streamFeed(@Nullable String cursor, int offset, int limit, User currentUser) {
+        return articlesFinder.streamFeed(cursor, offset, limit, currentUser);
+    }
+
+    /**
+     * tag filters by one tag as it is, tags by several comma separated ones, tagMode tells whether articles
+     * need any or all of them.
+     */
+    public Mono<MultipleArticlesView> findArticles(@Nullable String tag, @Nullable String tags, @Nullable String tagMode, String author, String favoritedByUser, @Nullable String cursor, int offset, int limit, Optional<User> currentUser) {
+        return articlesFinder.findArticles(tag, tags, tagMode, author, favoritedByUser, cursor, offset, limit, currentUser);
     }
 
-    public Mono<MultipleArticlesView> feed(int offset, int limit, User currentUser) {
-        var followingAuthorIds = currentUser.getFollowingIds();
-        return articleRepository
-                .findNewestArticlesByAuthorIds(followingAuthorIds, offset, limit)
-                .flatMap(article -> articleMapper.mapToArticleView(article, currentUser))
-                .collectList()
-                .map(MultipleArticlesView::of);
+    /**
+     * Same as {@link #findArticles} but emits every article as soon as it is mapped instead of one view of the page.
+     */
+    public Flux<ArticleView> streamArticles(@Nullable String tag, @Nullable String tags, @Nullable String tagMode, String author, String favoritedByUser, @Nullable String cursor, int offset, int limit, Optional<User> currentUser) {
+        return articlesFinder.streamArticles(tag, tags, tagMode, author, favoritedByUser, cursor, offset, limit, currentUser);
     }
 
-    public Mono<MultipleArticlesView> findArticles(String tag, String author, String favoritedByUser, int offset, int limit, Optional<User> currentUser) {
-        return articlesFinder.findArticles(tag, author, favoritedByUser, offset, limit, currentUser);
+    /**
+     * Finds articles by words of title, description, body and tags, most relevant first.
+     */
+    public Mono<MultipleArticlesView> searchArticles(String query, int offset, int limit, Optional<User> currentUser) {
+        return articleSearcher.search(query, offset, limit, currentUser);
     }
 
     public Mono<ArticleView> getArticle(String slug, Optional<User> currentUser) {
@@ -68,24 +119,36 @@ public class ArticleFacade {
                 .flatMap(article -> articleMapper.mapToArticleView(article, currentUser));
     }
 
+    /**
+     * Only the changed fields are written, so concurrent favorites are not overwritten.
+     * The author check and the write are one conditional update, the article is read only to explain a failed update.
+     */
     public Mono<ArticleView> updateArticle(String slug, UpdateArticleRequest request, User currentUser) {
         System.out.println("update article");
-        return articleRepository.findBySlugOrFail(slug)
-                .map(article -> updateArticle(request, currentUser, article));
+        return articleRepository.updateArticleFields(slug, currentUser.getId(), request.getVersion(), changedFields(request))
+                .onErrorMap(DuplicateKeyException.class, e -> new InvalidRequestException("Title", "already in use", e))
+                .switchIfEmpty(Mono.defer(() -> explainFailedUpdate(slug, currentUser)))
+                .doOnNext(articleSearchIndex::index)
+                .map(article -> articleMapper.withPendingFavorites(ArticleView.ofOwnArticle(article, currentUser), article.getId(), article.getFavoritesCount()));
     }
 
     public void shareArticle() {
         System.out.println("share article");
     }
 
+    /**
+     * The author check and the delete are one conditional findAndModify, the article id is read only to explain a failed delete.
+     * Ids of the deleted article are removed from favorites of users later by {@link StaleFavoritesCleanup}.
+     */
     public Mono<Void> deleteArticle(String slug, User articleAuthor) {
-        return articleRepository.findBySlug(slug)
-                .flatMap(article -> {
-                    if (!article.isAuthor(articleAuthor)) {
-                        return Mono.error(new InvalidRequestException("Article", "only author can delete article"));
-                    }
-                    return articleRepository.deleteArticleBySlug(slug).then();
-                });
+        return articleRepository.findAndDeleteBySlugAndAuthorId(slug, articleAuthor.getId())
+                .switchIfEmpty(Mono.defer(() -> explainFailedDelete(slug)))
+                .doOnNext(article -> {
+                    articleCounter.invalidateAll();
+                    articleSearchIndex.remove(article.getId());
+                    tagService.removeArticleTagsInBackground(article.getTags());
+                })
+                .flatMap(commentService::deleteArticleComments);
     }
 
     public Mono<CommentView> addComment(String slug, CreateCommentRequest request, User currentUser) {
@@ -100,37 +163,99 @@ public class ArticleFacade {
         System.out.println("Updating comment: " + commentId);
     }
 
-    public Mono<MultipleCommentsView> getComments(String slug, Optional<User> user) {
-        return commentService.getComments(slug, user);
+    public Mono<MultipleCommentsView> getComments(String slug, int offset, @Nullable Integer limit, Optional<User> user) {
+        if (offset < 0) {
+            return Mono.error(new InvalidRequestException("Offset", "must not be less than 0"));
+        }
+        if (limit != null && limit < 1) {
+            return Mono.error(new InvalidRequestException("Limit", "must be greater than 0"));
+        }
+        return commentService.getComments(slug, offset, limit, user);
     }
 
+    /**
+     * favoritesCount is incremented only when the favorite was actually added to the user,
+     * so repeated and concurrent requests count every user once.
+     * The increment may be written behind, see {@link FavoritesCounter}.
+     * Only the article id is read up front, the article for the view is read once after the change.
+     */
     public Mono<ArticleView> favoriteArticle(String slug, User currentUser) {
-        return articleRepository.findBySlug(slug)
+        return articleRepository.findArticleIdBySlugOrFail(slug)
+                .flatMap(articleId -> userRepository.addFavoriteArticleId(currentUser.getId(), articleId)
+                        .flatMap(added -> {
+                            if (!added) {
+                                return articleRepository.findById(articleId);
+                            }
+                            articleCounter.invalidateFavoritedBy(currentUser.getId());
+                            return favoritesCounter.increment(articleId, 1);
+                        }))
+                .switchIfEmpty(Mono.error(new InvalidRequestException("Article", "not found")))
                 .map(article -> {
                     currentUser.favorite(article);
-                    return ArticleView.ofOwnArticle(article, currentUser);
+                    return articleMapper.withPendingFavorites(ArticleView.ofOwnArticle(article, currentUser), article.getId(), article.getFavoritesCount());
                 });
     }
 
     public Mono<ArticleView> unfavoriteArticle(String slug, User currentUser) {
-        return articleRepository.findBySlug(slug)
+        return articleRepository.findArticleIdBySlugOrFail(slug)
+                .flatMap(articleId -> userRepository.removeFavoriteArticleId(currentUser.getId(), articleId)
+                        .flatMap(removed -> {
+                            if (!removed) {
+                                return articleRepository.findById(articleId);
+                            }
+                            articleCounter.invalidateFavoritedBy(currentUser.getId());
+                            return favoritesCounter.increment(articleId, -1);
+                        }))
+                .switchIfEmpty(Mono.error(new InvalidRequestException("Article", "not found")))
                 .map(article -> {
                     currentUser.unfavorite(article);
-                    return ArticleView.ofOwnArticle(article, currentUser);
+                    return articleMapper.withPendingFavorites(ArticleView.ofOwnArticle(article, currentUser), article.getId(), article.getFavoritesCount());
                 });
     }
 
-    private ArticleView updateArticle(UpdateArticleRequest request, User currentUser, Article article) {
-        if (!article.isAuthor(currentUser)) {
-            throw new InvalidRequestException("Article", "only author can update article");
+    /**
+     * Tags starting with the prefix, most used first, looked up in memory.
+     */
+    public Mono<TagListView> suggestTags(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_TAG_SUGGESTIONS) {
+            return Mono.error(new InvalidRequestException("Limit", "must be between 1 and " + MAX_TAG_SUGGESTIONS));
         }
+        return tagCatalogue.suggest(prefix, limit);
+    }
 
-        ofNullable(request.getBody())
-                .ifPresent(article::setBody);
-        ofNullable(request.getDescription())
-                .ifPresent(article::setDescription);
+    private Mono<Void> validateTop(@Nullable Integer top) {
+        if (top != null && top < 1) {
+            return Mono.error(new InvalidRequestException("Top", "must be greater than 0"));
+        }
+        return Mono.empty();
+    }
+
+    private Map<String, Object> changedFields(UpdateArticleRequest request) {
+        var fields = new HashMap<String, Object>();
         ofNullable(request.getTitle())
-                .ifPresent(article::setTitle);
-        return ArticleView.ofOwnArticle(article, currentUser);
+                .ifPresent(title -> {
+                    fields.put("title", title);
+                    fields.put(Article.SLUG_FIELD_NAME, Article.toSlug(title));
+                });
+        ofNullable(request.getDescription())
+                .ifPresent(description -> fields.put("description", description));
+        ofNullable(request.getBody())
+                .ifPresent(body -> fields.put("body", body));
+        return fields;
+    }
+
+    private Mono<Article> explainFailedDelete(String slug) {
+        return articleRepository.findArticleIdBySlugOrFail(slug)
+                .flatMap(articleId -> Mono.error(new InvalidRequestException("Article", "only author can delete article")));
+    }
+
+    private Mono<Article> explainFailedUpdate(String slug, User currentUser) {
+        return articleRepository.findBySlugOrFail(slug)
+                .flatMap(article -> {
+                    if (!article.isAuthor(currentUser)) {
+                        return Mono.error(new InvalidRequestException("Article", "only author can update article"));
+                    }
+                    return Mono.error(new InvalidRequestException("Article", "was changed by another request, reload it and retry"));
+                });
     }
 }
@@ -0,0 +1,41 @@
+package com.realworld.springmongo.article;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Value
+@ConfigurationProperties(prefix = "article.listing")
+@ConstructorBinding
+public class ArticleListingProperties {
+    Engine engine;
+    FeedEngine feedEngine;
+
+    public ArticleListingProperties(@DefaultValue("batched") Engine engine, @DefaultValue("in-query") FeedEngine feedEngine) {
+        this.engine = engine;
+        this.feedEngine = feedEngine;
+    }
+
+    public enum Engine {
+        /**
+         * Finds a page of articles and then loads their authors with one more query.
+         */
+        BATCHED,
+        /**
+         * Finds a page of articles with authors joined by $lookup in one aggregation.
+         */
+        AGGREGATION
+    }
+
+    public enum FeedEngine {
+        /**
+         * Finds feed articles with one query over all followed authors with authorId $in.
+         */
+        IN_QUERY,
+        /**
+         * Opens one query per followed author and merges the newest-first streams until the page is filled.
+         */
+        MERGE
+    }
+}
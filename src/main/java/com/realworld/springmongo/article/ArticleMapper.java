@@ -7,7 +7,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static com.realworld.springmongo.article.dto.ArticleView.toArticleViewForViewer;
 import static com.realworld.springmongo.user.dto.ProfileView.toProfileViewForViewer;
@@ -18,6 +20,32 @@ import static com.realworld.springmongo.user.dto.ProfileView.toUnfollowedProfile
 public class ArticleMapper {
 
     private final UserRepository userRepository;
+    private final FavoritesCounter favoritesCounter;
+
+    /**
+     * Maps page of articles keeping the page order. Authors of the whole page are loaded with one query.
+     */
+    public Mono<List<ArticleView>> mapToArticleViews(List<ArticleSummary> articles, Optional<User> viewer) {
+        if (articles.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return userRepository.findAuthorsByArticles(articles)
+                .collectMap(User::getId)
+                .map(authors -> articles.stream()
+                        .filter(article -> authors.containsKey(article.getAuthorId()))
+                        .map(article -> mapToArticleView(article, authors.get(article.getAuthorId()), viewer))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Maps page of articles with already joined authors, no queries are made.
+     */
+    public List<ArticleView> mapArticlesWithAuthorsToArticleViews(List<ArticleWithAuthor> articles, Optional<User> viewer) {
+        return articles.stream()
+                .filter(it -> it.getAuthor() != null)
+                .map(it -> mapToArticleView(it.getArticle(), it.getAuthor(), viewer))
+                .collect(Collectors.toList());
+    }
 
     public Mono<ArticleView> mapToArticleView(Article article, Optional<User> viewer) {
         return viewer.map(user -> mapToArticleView(article, user)).orElseGet(() -> mapToArticleView(article));
@@ -25,11 +53,25 @@ public class ArticleMapper {
 
     public Mono<ArticleView> mapToArticleView(Article article, User user) {
         return userRepository.findAuthorByArticle(article)
-                .map(it -> toArticleViewForViewer(article, toProfileViewForViewer(it, user), user));
+                .map(author -> mapToArticleView(ArticleSummary.of(article), author, Optional.of(user)));
     }
 
     public Mono<ArticleView> mapToArticleView(Article article) {
         return userRepository.findAuthorByArticle(article)
-                .map(author -> ArticleView.toUnfavoredArticleView(article, toUnfollowedProfileView(author)));
+                .map(author -> mapToArticleView(ArticleSummary.of(article), author, Optional.empty()));
+    }
+
+    /**
+     * Adds favorites that are not written to the article yet to the count shown.
+     */
+    public ArticleView withPendingFavorites(ArticleView view, String articleId, int persistedFavoritesCount) {
+        return view.setFavoritesCount(favoritesCounter.countOf(articleId, persistedFavoritesCount));
+    }
+
+    private ArticleView mapToArticleView(ArticleSummary article, User author, Optional<User> viewer) {
+        var view = viewer
+                .map(user -> toArticleViewForViewer(article, toProfileViewForViewer(author, user), user))
+                .orElseGet(() -> ArticleView.toUnfavoredArticleView(article, toUnfollowedProfileView(author)));
+        return withPendingFavorites(view, article.getId(), article.getFavoritesCount());
     }
 }
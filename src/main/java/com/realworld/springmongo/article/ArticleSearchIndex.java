@@ -0,0 +1,218 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.ArticleSearchProperties.Engine;
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.change.ArticleChangedEvent;
+import com.realworld.springmongo.change.ChangesMissedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index of article words to article ids with the field weights of the text index.
+ * All articles are indexed on start, after that the index follows writes of {@link ArticleFacade} on this instance
+ * and, with the change stream enabled, writes of other instances. Without it they are found after a restart.
+ * Holds nothing unless {@link Engine#INVERTED_INDEX} is configured.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class ArticleSearchIndex implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ArticleRepository articleRepository;
+    private final ArticleSearchProperties properties;
+
+    /**
+     * Word to the ids of articles containing it with the summed weights of the fields it is found in.
+     */
+    private final Map<String, Map<String, Integer>> postings = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> articleWords = new ConcurrentHashMap<>();
+    /**
+     * Ids of articles indexed or removed while all articles are being loaded, the load must not overwrite them
+     * with the version it read earlier.
+     */
+    private final Set<String> changedWhileLoading = new HashSet<>();
+
+    private volatile boolean loaded;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (isEnabled()) {
+            load();
+        }
+    }
+
+    /**
+     * Follows writes of other instances when the change stream is enabled.
+     */
+    @EventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        var article = event.getDocument();
+        if (event.isDelete()) {
+            remove(event.getDocumentId());
+        } else if (article != null) {
+            index(article);
+        }
+    }
+
+    /**
+     * Searches go to the text index until all articles are indexed again.
+     */
+    @EventListener
+    public void onChangesMissed(ChangesMissedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            loaded = false;
+            postings.clear();
+            articleWords.clear();
+            changedWhileLoading.clear();
+        }
+        load();
+    }
+
+    private void load() {
+        articleRepository.findAll()
+                .doOnNext(this::indexLoaded)
+                .then()
+                .subscribe(nothing -> {
+                }, error -> log.warn("Failed to index articles for search, searching the text index", error), () -> {
+                    finishLoading();
+                    log.info("Indexed {} articles for search", articleWords.size());
+                });
+    }
+
+    private synchronized void indexLoaded(Article article) {
+        if (!changedWhileLoading.contains(article.getId())) {
+            addWords(article);
+        }
+    }
+
+    private synchronized void finishLoading() {
+        changedWhileLoading.clear();
+        loaded = true;
+    }
+
+    public boolean isEnabled() {
+        return properties.getEngine() == Engine.INVERTED_INDEX;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized void index(Article article) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!loaded) {
+            changedWhileLoading.add(article.getId());
+        }
+        addWords(article);
+    }
+
+    public synchronized void remove(String articleId) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!loaded) {
+            changedWhileLoading.add(articleId);
+        }
+        removeWords(articleId);
+    }
+
+    /**
+     * Returns a page of ids of articles containing any of the words, best first, and the number of all found articles.
+     * Each word scores its field weights in the article, scaled down for words found in many articles.
+     */
+    public Hits search(String text, int offset, int limit) {
+        var scores = new HashMap<String, Double>();
+        var articlesCount = Math.max(articleWords.size(), 1);
+        for (var word : words(text)) {
+            var articles = postings.get(word);
+            if (articles == null) {
+                continue;
+            }
+            var rarity = Math.log(1 + (double) articlesCount / articles.size());
+            articles.forEach((articleId, weight) -> scores.merge(articleId, weight * rarity, Double::sum));
+        }
+        var page = scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .skip(offset)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        return new Hits(page, scores.size());
+    }
+
+    private void addWords(Article article) {
+        removeWords(article.getId());
+        var weights = wordWeights(article);
+        weights.forEach((word, weight) -> postings.computeIfAbsent(word, it -> new ConcurrentHashMap<>())
+                .put(article.getId(), weight));
+        articleWords.put(article.getId(), weights.keySet());
+    }
+
+    private void removeWords(String articleId) {
+        var words = articleWords.remove(articleId);
+        if (words == null) {
+            return;
+        }
+        for (var word : words) {
+            postings.computeIfPresent(word, (it, articles) -> {
+                articles.remove(articleId);
+                return articles.isEmpty() ? null : articles;
+            });
+        }
+    }
+
+    private static Map<String, Integer> wordWeights(Article article) {
+        var weights = new HashMap<String, Integer>();
+        addWords(weights, article.getTitle(), Article.TITLE_SEARCH_WEIGHT);
+        addWords(weights, article.getDescription(), Article.DESCRIPTION_SEARCH_WEIGHT);
+        addWords(weights, article.getBody(), Article.BODY_SEARCH_WEIGHT);
+        article.getTags().forEach(tag -> addWords(weights, tag, Article.TAGS_SEARCH_WEIGHT));
+        return weights;
+    }
+
+    private static void addWords(Map<String, Integer> weights, @Nullable String text, int weight) {
+        words(text).forEach(word -> weights.merge(word, weight, Integer::sum));
+    }
+
+    static Set<String> words(@Nullable String text) {
+        if (text == null) {
+            return Set.of();
+        }
+        return Arrays.stream(NON_WORD.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @Value
+    static class Hits {
+        List<String> articleIds;
+        int totalCount;
+    }
+}
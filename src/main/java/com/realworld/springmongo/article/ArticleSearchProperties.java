@@ -0,0 +1,29 @@
+package com.realworld.springmongo.article;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Value
+@ConfigurationProperties(prefix = "article.search")
+@ConstructorBinding
+public class ArticleSearchProperties {
+    Engine engine;
+
+    public ArticleSearchProperties(@DefaultValue("text-index") Engine engine) {
+        this.engine = engine;
+    }
+
+    public enum Engine {
+        /**
+         * Ranks articles by $text score of the Mongo text index over title, description, body and tags.
+         */
+        TEXT_INDEX,
+        /**
+         * Ranks articles with an inverted index kept in memory of every instance,
+         * searches go to the text index until it is loaded.
+         */
+        INVERTED_INDEX
+    }
+}
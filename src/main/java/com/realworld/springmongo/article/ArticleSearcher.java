@@ -0,0 +1,72 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.dto.MultipleArticlesView;
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.exceptions.InvalidRequestException;
+import com.realworld.springmongo.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks articles by relevance to a text with the configured {@link ArticleSearchProperties.Engine}.
+ * Both engines return the same view, articlesCount is the number of all found articles.
+ */
+@Component
+@RequiredArgsConstructor
+class ArticleSearcher {
+
+    private final ArticleRepository articleRepository;
+    private final ArticleSearchIndex articleSearchIndex;
+    private final ArticleMapper articleMapper;
+
+    public Mono<MultipleArticlesView> search(String text, int offset, int limit, Optional<User> currentUser) {
+        if (text.isBlank()) {
+            return Mono.error(new InvalidRequestException("Query", "must not be blank"));
+        }
+        if (articleSearchIndex.isEnabled() && articleSearchIndex.isLoaded()) {
+            return searchInvertedIndex(text, offset, limit, currentUser);
+        }
+        return searchTextIndex(text, offset, limit, currentUser);
+    }
+
+    /**
+     * The page and the total count are queried concurrently.
+     */
+    private Mono<MultipleArticlesView> searchTextIndex(String text, int offset, int limit, Optional<User> currentUser) {
+        var page = articleRepository.searchArticles(text, offset, limit)
+                .collectList()
+                .flatMap(articles -> articleMapper.mapToArticleViews(articles, currentUser));
+        return Mono.zip(page, articleRepository.countSearchedArticles(text))
+                .map(pageAndCount -> MultipleArticlesView.of(pageAndCount.getT1())
+                        .setArticlesCount((int) Math.min(pageAndCount.getT2(), Integer.MAX_VALUE)));
+    }
+
+    private Mono<MultipleArticlesView> searchInvertedIndex(String text, int offset, int limit, Optional<User> currentUser) {
+        var hits = articleSearchIndex.search(text, offset, limit);
+        if (hits.getArticleIds().isEmpty()) {
+            return Mono.just(MultipleArticlesView.of(List.of()).setArticlesCount(hits.getTotalCount()));
+        }
+        return articleRepository.findArticleSummariesByIds(hits.getArticleIds())
+                .collectList()
+                .map(articles -> inRankOrder(articles, hits.getArticleIds()))
+                .flatMap(articles -> articleMapper.mapToArticleViews(articles, currentUser))
+                .map(views -> MultipleArticlesView.of(views).setArticlesCount(hits.getTotalCount()));
+    }
+
+    private static List<ArticleSummary> inRankOrder(List<ArticleSummary> articles, List<String> rankedIds) {
+        Map<String, ArticleSummary> articlesById = articles.stream()
+                .collect(Collectors.toMap(ArticleSummary::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(articlesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,86 @@
+package com.realworld.springmongo.article;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.List;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Read-only view of an article stored in the article collection with the fields shown in article lists.
+ * Comments are never read into it, so list pages don't decode them.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ArticleSummary {
+
+    public static final List<String> FIELD_NAMES = List.of(
+            Article.ID_FIELD_NAME,
+            Article.SLUG_FIELD_NAME,
+            "title",
+            "description",
+            "body",
+            Article.TAGS_FIELD_NAME,
+            Article.CREATED_AT_FIELD_NAME,
+            Article.UPDATED_AT_FIELD_NAME,
+            Article.FAVORITES_COUNT_FIELD_NAME,
+            Article.AUTHOR_ID_FIELD_NAME,
+            Article.VERSION_FIELD_NAME
+    );
+
+    @EqualsAndHashCode.Include
+    private final String id;
+    private final String slug;
+    private final String title;
+    private final String description;
+    private final String body;
+    private final List<String> tags;
+    private final Instant createdAt;
+    private final Instant updatedAt;
+    private final Integer favoritesCount;
+    private final String authorId;
+    private final Long version;
+
+    public ArticleSummary(String id,
+                          String slug,
+                          String title,
+                          String description,
+                          String body,
+                          List<String> tags,
+                          Instant createdAt,
+                          Instant updatedAt,
+                          Integer favoritesCount,
+                          String authorId,
+                          @Nullable Long version) {
+        this.id = id;
+        this.slug = slug;
+        this.title = title;
+        this.description = description;
+        this.body = body;
+        this.tags = tags;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.favoritesCount = favoritesCount;
+        this.authorId = authorId;
+        this.version = ofNullable(version).orElse(0L);
+    }
+
+    public static ArticleSummary of(Article article) {
+        return new ArticleSummary(article.getId(),
+                article.getSlug(),
+                article.getTitle(),
+                article.getDescription(),
+                article.getBody(),
+                article.getTags(),
+                article.getCreatedAt(),
+                article.getUpdatedAt(),
+                article.getFavoritesCount(),
+                article.getAuthorId(),
+                article.getVersion());
+    }
+}
@@ -0,0 +1,16 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.user.User;
+import lombok.Value;
+import org.springframework.lang.Nullable;
+
+/**
+ * Article summary joined with the public part of its author (id, username, bio, image) by a single aggregation.
+ */
+@Value
+public class ArticleWithAuthor {
+    ArticleSummary article;
+
+    @Nullable
+    User author;
+}
@@ -1,60 +1,231 @@
 package com.realworld.springmongo.article;
 
+import com.realworld.springmongo.article.ArticleListingProperties.Engine;
+import com.realworld.springmongo.article.ArticleListingProperties.FeedEngine;
+import com.realworld.springmongo.article.dto.ArticleView;
 import com.realworld.springmongo.article.dto.MultipleArticlesView;
 import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.exceptions.InvalidRequestException;
 import com.realworld.springmongo.user.User;
 import com.realworld.springmongo.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 class ArticlesFinder {
 
+    private static final int MAX_FILTER_TAGS = 10;
+    private static final int STREAM_BATCH_SIZE = 32;
+
     private final ArticleRepository articleRepository;
     private final UserRepository userRepository;
     private final ArticleMapper articleMapper;
+    private final ArticleListingProperties listingProperties;
+    private final TimelineService timelineService;
+    private final TagCatalogue tagCatalogue;
+    private final ArticleCounter articleCounter;
+
+    public Mono<MultipleArticlesView> findArticles(@Nullable String tag, @Nullable String tags, @Nullable String tagMode, String author, String favoritedByUser, @Nullable String cursor, int offset, int limit, Optional<User> currentUser) {
+        return createFindArticleRequest(tag, tags, tagMode, author, favoritedByUser, cursor, offset, limit)
+                .flatMap(request -> Mono.zip(findPage(request, currentUser, limit), articleCounter.count(request))
+                        .map(pageAndCount -> pageAndCount.getT1()
+                                .setArticlesCount((int) Math.min(pageAndCount.getT2(), Integer.MAX_VALUE))))
+                .defaultIfEmpty(MultipleArticlesView.of(List.of()));
+    }
+
+    /**
+     * The page and the total count are queried concurrently, so counting takes no extra round trip.
+     */
+    private Mono<MultipleArticlesView> findPage(FindArticlesRequest request, Optional<User> currentUser, int limit) {
+        if (isAggregationEngine()) {
+            var articles = articleRepository.findNewestArticlesWithAuthorsFilteredBy(request);
+            return mapArticlesWithAuthors(articles, currentUser, limit);
+        }
+        var articles = articleRepository.findNewestArticlesFilteredBy(request);
+        return mapArticles(articles, currentUser, limit);
+    }
+
+    /**
+     * Same articles as {@link #findArticles} written one by one as they are read from the cursor, see {@link #streamViews}.
+     */
+    public Flux<ArticleView> streamArticles(@Nullable String tag, @Nullable String tags, @Nullable String tagMode, String author, String favoritedByUser, @Nullable String cursor, int offset, int limit, Optional<User> currentUser) {
+        return createFindArticleRequest(tag, tags, tagMode, author, favoritedByUser, cursor, offset, limit)
+                .flatMapMany(request -> {
+                    if (isAggregationEngine()) {
+                        return streamViewsWithAuthors(articleRepository.findNewestArticlesWithAuthorsFilteredBy(request), currentUser);
+                    }
+                    return streamViews(articleRepository.findNewestArticlesFilteredBy(request), currentUser);
+                });
+    }
+
+    public Flux<ArticleView> streamFeed(@Nullable String cursor, int offset, int limit, User currentUser) {
+        var articleCursor = ArticleCursor.parseNullable(cursor);
+        if (timelineService.isEnabled()) {
+            return timelineService.findTimelinePage(currentUser, articleCursor, offset, limit)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMapMany(page -> page
+                            .map(timelinePage -> streamViews(Flux.fromIterable(timelinePage.getArticles()), Optional.of(currentUser)))
+                            .orElseGet(() -> streamPulledFeed(articleCursor, offset, limit, currentUser)));
+        }
+        return streamPulledFeed(articleCursor, offset, limit, currentUser);
+    }
+
+    public Mono<MultipleArticlesView> findFeed(@Nullable String cursor, int offset, int limit, User currentUser) {
+        var articleCursor = ArticleCursor.parseNullable(cursor);
+        if (timelineService.isEnabled()) {
+            return timelineService.findTimelinePage(currentUser, articleCursor, offset, limit)
+                    .flatMap(page -> mapPage(page.getArticles(), Optional.of(currentUser), page.getNextCursor()))
+                    .switchIfEmpty(Mono.defer(() -> pullFeed(articleCursor, offset, limit, currentUser)));
+        }
+        return pullFeed(articleCursor, offset, limit, currentUser);
+    }
+
+    private Mono<MultipleArticlesView> pullFeed(@Nullable ArticleCursor cursor, int offset, int limit, User currentUser) {
+        var followingAuthorIds = currentUser.getFollowingIds();
+        if (listingProperties.getFeedEngine() == FeedEngine.MERGE) {
+            var articles = articleRepository.findNewestArticlesByAuthorIdsMerged(followingAuthorIds, cursor, offset, limit);
+            return mapArticles(articles, Optional.of(currentUser), limit);
+        }
+        if (isAggregationEngine()) {
+            var articles = articleRepository.findNewestArticlesWithAuthorsByAuthorIds(followingAuthorIds, cursor, offset, limit);
+            return mapArticlesWithAuthors(articles, Optional.of(currentUser), limit);
+        }
+        var articles = articleRepository.findNewestArticlesByAuthorIds(followingAuthorIds, cursor, offset, limit);
+        return mapArticles(articles, Optional.of(currentUser), limit);
+    }
 
-    public Mono<MultipleArticlesView> findArticles(String tag, String author, String favoritedByUser, int offset, int limit, Optional<User> currentUser) {
-        return createFindArticleRequest(tag, author, favoritedByUser, offset, limit)
-                .flatMapMany(articleRepository::findNewestArticlesFilteredBy)
-                .flatMap(article -> articleMapper.mapToArticleView(article, currentUser))
-                .collectList()
-                .map(MultipleArticlesView::of);
+    private Flux<ArticleView> streamPulledFeed(@Nullable ArticleCursor cursor, int offset, int limit, User currentUser) {
+        var followingAuthorIds = currentUser.getFollowingIds();
+        if (listingProperties.getFeedEngine() == FeedEngine.MERGE) {
+            var articles = articleRepository.findNewestArticlesByAuthorIdsMerged(followingAuthorIds, cursor, offset, limit);
+            return streamViews(articles, Optional.of(currentUser));
+        }
+        if (isAggregationEngine()) {
+            var articles = articleRepository.findNewestArticlesWithAuthorsByAuthorIds(followingAuthorIds, cursor, offset, limit);
+            return streamViewsWithAuthors(articles, Optional.of(currentUser));
+        }
+        var articles = articleRepository.findNewestArticlesByAuthorIds(followingAuthorIds, cursor, offset, limit);
+        return streamViews(articles, Optional.of(currentUser));
+    }
+
+    /**
+     * Authors are loaded per small batch of articles, so only one batch is held in memory and the first views
+     * are written before the rest of the page is read. The next batch is requested only when the previous one is
+     * written, so a slow client slows down reading of the Mongo cursor instead of filling the heap.
+     */
+    private Flux<ArticleView> streamViews(Flux<ArticleSummary> articles, Optional<User> currentUser) {
+        return articles.buffer(STREAM_BATCH_SIZE)
+                .concatMap(batch -> articleMapper.mapToArticleViews(batch, currentUser), 1)
+                .concatMapIterable(views -> views);
+    }
+
+    private Flux<ArticleView> streamViewsWithAuthors(Flux<ArticleWithAuthor> articles, Optional<User> currentUser) {
+        return articles.buffer(STREAM_BATCH_SIZE)
+                .concatMapIterable(batch -> articleMapper.mapArticlesWithAuthorsToArticleViews(batch, currentUser));
+    }
+
+    private boolean isAggregationEngine() {
+        return listingProperties.getEngine() == Engine.AGGREGATION;
+    }
+
+    private Mono<MultipleArticlesView> mapArticles(Flux<ArticleSummary> articles, Optional<User> currentUser, int limit) {
+        return articles.collectList()
+                .flatMap(page -> mapPage(page, currentUser, limit));
+    }
+
+    private Mono<MultipleArticlesView> mapPage(List<ArticleSummary> page, Optional<User> currentUser, int limit) {
+        return mapPage(page, currentUser, ArticleCursor.nextPage(page, limit));
+    }
+
+    private Mono<MultipleArticlesView> mapPage(List<ArticleSummary> page, Optional<User> currentUser, @Nullable ArticleCursor nextCursor) {
+        return articleMapper.mapToArticleViews(page, currentUser)
+                .map(views -> MultipleArticlesView.of(views, nextCursor));
     }
 
-    private Mono<FindArticlesRequest> createFindArticleRequest(String tag, String author, String favoritedByUser, int offset, int limit) {
-        var request = new FindArticlesRequest()
-                .setOffset(offset)
-                .setLimit(limit)
-                .setTag(tag);
-        return addToRequestAuthorId(author, request)
-                .then(addToRequestFavoritedBy(favoritedByUser, request))
-                .thenReturn(request);
+    private Mono<MultipleArticlesView> mapArticlesWithAuthors(Flux<ArticleWithAuthor> articles, Optional<User> currentUser, int limit) {
+        return articles.collectList()
+                .map(page -> {
+                    var views = articleMapper.mapArticlesWithAuthorsToArticleViews(page, currentUser);
+                    var pageArticles = page.stream()
+                            .map(ArticleWithAuthor::getArticle)
+                            .collect(Collectors.toList());
+                    return MultipleArticlesView.of(views, ArticleCursor.nextPage(pageArticles, limit));
+                });
     }
 
-    private Mono<User> addToRequestFavoritedBy(String favoritedByUser, FindArticlesRequest request) {
-        return getFavoritedBy(favoritedByUser).doOnNext(request::setFavoritedBy);
+    /**
+     * Author and favorited-by users are resolved concurrently. Returns empty when any of them doesn't exist,
+     * since no article can match such a filter.
+     */
+    private Mono<FindArticlesRequest> createFindArticleRequest(@Nullable String tag, @Nullable String tags, @Nullable String tagMode, String author, String favoritedByUser, @Nullable String cursor, int offset, int limit) {
+        return Mono.defer(() -> {
+            var filterTags = parseTags(tag, tags);
+            var mode = TagMode.parse(tagMode);
+            var request = new FindArticlesRequest()
+                    .setOffset(offset)
+                    .setLimit(limit)
+                    .setCursor(ArticleCursor.parseNullable(cursor))
+                    .setTagMode(mode);
+            return Mono.zip(orderTags(filterTags, mode), getAuthorId(author), getFavoritedBy(favoritedByUser))
+                    .map(filters -> {
+                        request.setTags(filters.getT1());
+                        filters.getT2().ifPresent(request::setAuthorId);
+                        filters.getT3().ifPresent(request::setFavoritedBy);
+                        return request;
+                    });
+        });
     }
 
-    private Mono<String> addToRequestAuthorId(String author, FindArticlesRequest request) {
-        return getAuthorId(author).doOnNext(request::setAuthorId);
+    /**
+     * tag is a single tag taken as it is, so tags containing commas can still be filtered by.
+     * tags lists further comma separated tags.
+     */
+    private static List<String> parseTags(@Nullable String tag, @Nullable String tags) {
+        var listedTags = tags == null ? Stream.<String>empty() : Arrays.stream(tags.split(","))
+                .map(String::trim)
+                .filter(it -> !it.isEmpty());
+        var filterTags = Stream.concat(Stream.ofNullable(tag), listedTags)
+                .distinct()
+                .collect(Collectors.toList());
+        if (filterTags.size() > MAX_FILTER_TAGS) {
+            throw new InvalidRequestException("Tags", "must have at most " + MAX_FILTER_TAGS + " tags");
+        }
+        return filterTags;
+    }
+
+    /**
+     * For all tags the index scan runs over the first one, so the least used tag by articlesCount of the
+     * {@link TagCatalogue} is put first. Order doesn't matter for any of the tags.
+     */
+    private Mono<List<String>> orderTags(List<String> tags, TagMode mode) {
+        if (mode == TagMode.ANY || tags.size() < 2) {
+            return Mono.just(tags);
+        }
+        return tagCatalogue.leastUsedFirst(tags);
     }
 
-    private Mono<String> getAuthorId(String author) {
+    private Mono<Optional<String>> getAuthorId(@Nullable String author) {
         if (author == null) {
-            return Mono.empty();
+            return Mono.just(Optional.empty());
         }
-        return userRepository.findByUsername(author).map(User::getId);
+        return userRepository.findByUsername(author).map(user -> Optional.of(user.getId()));
     }
 
-    private Mono<User> getFavoritedBy(String favoritedBy) {
+    private Mono<Optional<User>> getFavoritedBy(@Nullable String favoritedBy) {
         if (favoritedBy == null) {
-            return Mono.empty();
+            return Mono.just(Optional.empty());
         }
-        return userRepository.findByUsername(favoritedBy);
+        return userRepository.findByUsername(favoritedBy).map(Optional::of);
     }
 }
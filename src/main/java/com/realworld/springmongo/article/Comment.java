@@ -5,20 +5,33 @@ import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 import static java.util.Optional.ofNullable;
 
+@Document
+@CompoundIndex(name = Comment.ARTICLE_ID_CREATED_AT_INDEX_NAME, def = "{'articleId': 1, 'createdAt': 1, '_id': 1}")
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Comment {
 
+    public static final String ID_FIELD_NAME = "id";
+    public static final String ARTICLE_ID_FIELD_NAME = "articleId";
+    public static final String AUTHOR_ID_FIELD_NAME = "authorId";
+    public static final String CREATED_AT_FIELD_NAME = "createdAt";
+    public static final String ARTICLE_ID_CREATED_AT_INDEX_NAME = "articleId_createdAt";
+
     @Id
     @EqualsAndHashCode.Include
     @Getter
     private final String id;
 
+    @Getter
+    private final String articleId;
+
     @Getter
     @Setter
     private String body;
@@ -35,8 +48,9 @@ public class Comment {
     private final Instant updatedAt;
 
     @Builder
-    public Comment(String id, String body, String authorId, Instant createdAt, Instant updatedAt) {
+    public Comment(String id, String articleId, String body, String authorId, Instant createdAt, Instant updatedAt) {
         this.id = id;
+        this.articleId = articleId;
         this.body = body;
         this.authorId = authorId;
         this.createdAt = ofNullable(createdAt).orElse(Instant.now());
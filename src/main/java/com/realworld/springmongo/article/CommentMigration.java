@@ -0,0 +1,99 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.CommentRepository;
+import com.realworld.springmongo.lib.BatchJobs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Moves comments embedded in article documents to the comment collection while the application is running.
+ * Articles are walked in batches ordered by id. Comments of an article are upserted by id first and pulled from
+ * the article after, so a failed or repeated run never loses or duplicates comments.
+ * Until the walk is over, an article is also migrated right before its comments are read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class CommentMigration implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String EMBEDDED_COMMENTS_FIELD_NAME = "comments";
+    private static final String ID_FIELD_NAME = "_id";
+    private static final int BATCH_SIZE = 100;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final CommentRepository commentRepository;
+
+    private volatile boolean completed = false;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        migrateAll().subscribe(migratedArticles -> {
+            completed = true;
+            log.info("Moved embedded comments of {} articles to the comment collection", migratedArticles);
+        }, error -> log.warn("Failed to move embedded comments, the migration will be continued on the next start", error));
+    }
+
+    public Mono<Long> migrateAll() {
+        return BatchJobs.walkById(this::findBatchWithEmbeddedComments)
+                .concatMap(batch -> Flux.fromIterable(batch)
+                        .concatMap(this::migrate)
+                        .then(Mono.just((long) batch.size())))
+                .reduce(0L, Long::sum);
+    }
+
+    public Mono<Void> migrateArticle(String articleId) {
+        if (completed) {
+            return Mono.empty();
+        }
+        var query = new Query(where(ID_FIELD_NAME).is(articleId).and(EMBEDDED_COMMENTS_FIELD_NAME + ".0").exists(true));
+        query.fields().include(EMBEDDED_COMMENTS_FIELD_NAME);
+        return mongoTemplate.findOne(query, Document.class, articleCollectionName())
+                .flatMap(this::migrate);
+    }
+
+    private Mono<List<Document>> findBatchWithEmbeddedComments(@Nullable String afterArticleId) {
+        var criteria = where(EMBEDDED_COMMENTS_FIELD_NAME + ".0").exists(true);
+        if (afterArticleId != null) {
+            criteria = criteria.and(ID_FIELD_NAME).gt(afterArticleId);
+        }
+        var query = new Query(criteria)
+                .with(Sort.by(ID_FIELD_NAME))
+                .limit(BATCH_SIZE);
+        query.fields().include(EMBEDDED_COMMENTS_FIELD_NAME);
+        return mongoTemplate.find(query, Document.class, articleCollectionName()).collectList();
+    }
+
+    private Mono<Void> migrate(Document article) {
+        var articleId = article.getString(ID_FIELD_NAME);
+        var comments = article.getList(EMBEDDED_COMMENTS_FIELD_NAME, Document.class).stream()
+                .map(comment -> mongoTemplate.getConverter().read(Comment.class, comment.append(Comment.ARTICLE_ID_FIELD_NAME, articleId)))
+                .collect(Collectors.toList());
+        var commentIds = comments.stream()
+                .map(Comment::getId)
+                .collect(Collectors.toList());
+        var pullMigrated = new Update().pull(EMBEDDED_COMMENTS_FIELD_NAME, new Document(ID_FIELD_NAME, new Document("$in", commentIds)));
+        return commentRepository.saveAll(comments)
+                .then(mongoTemplate.updateFirst(new Query(where(ID_FIELD_NAME).is(articleId)), pullMigrated, articleCollectionName()))
+                .then();
+    }
+
+    private String articleCollectionName() {
+        return mongoTemplate.getCollectionName(Article.class);
+    }
+}
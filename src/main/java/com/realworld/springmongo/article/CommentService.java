@@ -4,14 +4,17 @@ import com.realworld.springmongo.article.dto.CommentView;
 import com.realworld.springmongo.article.dto.CreateCommentRequest;
 import com.realworld.springmongo.article.dto.MultipleCommentsView;
 import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.article.repository.CommentRepository;
 import com.realworld.springmongo.exceptions.InvalidRequestException;
 import com.realworld.springmongo.user.User;
 import com.realworld.springmongo.user.UserRepository;
 import com.realworld.springmongo.user.dto.ProfileView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -24,54 +27,78 @@ import static com.realworld.springmongo.user.dto.ProfileView.toUnfollowedProfile
 class CommentService {
 
     private final ArticleRepository articleRepository;
+    private final CommentRepository commentRepository;
+    private final CommentMigration commentMigration;
     private final UserRepository userRepository;
 
+    /**
+     * Inserts the comment with a single write referencing the article by id, so concurrent comments
+     * to the same article never conflict and the article is not loaded.
+     */
     public Mono<CommentView> addComment(String slug, CreateCommentRequest request, User currentUser) {
-        return articleRepository.findBySlugOrFail(slug)
-                .flatMap(article -> addComment(request, currentUser, article));
+        return articleRepository.findArticleIdBySlugOrFail(slug)
+                .flatMap(articleId -> addComment(request, currentUser, articleId));
     }
 
+    /**
+     * Deletes with one conditional delete on id, article and author. The comment is looked up in the article only
+     * when nothing was deleted, to tell a missing comment from a comment of another author.
+     */
     public Mono<Void> deleteComment(String commentId, String slug, User user) {
-        return articleRepository.findBySlugOrFail(slug)
-                .flatMap(article -> article.getCommentById(commentId)
-                        .map(comment -> deleteComment(article, comment, user))
-                        .orElse(Mono.empty())
-                );
+        return articleRepository.findArticleIdBySlugOrFail(slug)
+                .flatMap(articleId -> commentMigration.migrateArticle(articleId)
+                        .then(commentRepository.deleteByIdAndArticleIdAndAuthorId(commentId, articleId, user.getId()))
+                        .filter(deletedCount -> deletedCount == 0)
+                        .flatMap(nothingDeleted -> commentRepository.existsByIdAndArticleId(commentId, articleId)))
+                .flatMap(exists -> exists
+                        ? Mono.error(new InvalidRequestException("Comment", "only author can delete comment"))
+                        : Mono.empty());
     }
 
-    public Mono<MultipleCommentsView> getComments(String slug, Optional<User> user) {
-        return articleRepository.findBySlug(slug)
-                .zipWhen(article -> userRepository.findById(article.getAuthorId()))
-                .map(tuple -> {
-                    var article = tuple.getT1();
-                    var author = tuple.getT2();
-                    return getComments(user, article, author);
-                });
+    public Mono<Void> deleteArticleComments(Article article) {
+        return commentRepository.deleteByArticleId(article.getId()).then();
+    }
+
+    /**
+     * Without limit all comments starting from the offset are returned.
+     */
+    public Mono<MultipleCommentsView> getComments(String slug, int offset, @Nullable Integer limit, Optional<User> user) {
+        return articleRepository.findArticleIdBySlug(slug)
+                .flatMap(articleId -> commentMigration.migrateArticle(articleId)
+                        .thenMany(limit == null
+                                ? commentRepository.findOldestArticleComments(articleId, offset)
+                                : commentRepository.findOldestArticleComments(articleId, offset, limit))
+                        .collectList())
+                .flatMap(comments -> getComments(user, comments));
     }
 
-    private Mono<Void> deleteComment(Article article, Comment comment, User user) {
-        if (!comment.isAuthor(user)) {
-            return Mono.error(new InvalidRequestException("Comment", "only author can delete comment"));
-        }
-        article.deleteComment(comment);
-        return articleRepository.save(article).then();
+    private Mono<CommentView> addComment(CreateCommentRequest request, User currentUser, String articleId) {
+        var comment = request.toComment(UUID.randomUUID().toString(), articleId, currentUser.getId());
+        return commentRepository.insert(comment)
+                .map(it -> CommentView.toCommentView(it, ProfileView.toOwnProfile(currentUser)));
     }
 
-    private Mono<CommentView> addComment(CreateCommentRequest request, User currentUser, Article article) {
-        var comment = request.toComment(UUID.randomUUID().toString(), currentUser.getId());
-        article.addComment(comment);
-        var profileView = CommentView.toCommentView(comment, ProfileView.toOwnProfile(currentUser));
-        return articleRepository.save(article).thenReturn(profileView);
+    /**
+     * Authors of all comments of the page are loaded with one query.
+     */
+    private Mono<MultipleCommentsView> getComments(Optional<User> user, List<Comment> comments) {
+        var authorIds = comments.stream()
+                .map(Comment::getAuthorId)
+                .collect(Collectors.toSet());
+        return userRepository.findAllById(authorIds)
+                .collectMap(User::getId)
+                .map(authors -> {
+                    var commentViews = comments.stream()
+                            .filter(comment -> authors.containsKey(comment.getAuthorId()))
+                            .map(comment -> CommentView.toCommentView(comment, toAuthorProfile(authors.get(comment.getAuthorId()), user)))
+                            .collect(Collectors.toList());
+                    return MultipleCommentsView.of(commentViews);
+                });
     }
 
-    private MultipleCommentsView getComments(Optional<User> user, Article article, User author) {
-        var comments = article.getComments();
-        var authorProfile = user
-                .map(viewer -> toProfileViewForViewer(author, viewer))
-                .orElse(toUnfollowedProfileView(author));
-        var commentViews = comments.stream()
-                .map(comment -> CommentView.toCommentView(comment, authorProfile))
-                .collect(Collectors.toList());
-        return MultipleCommentsView.of(commentViews);
+    private ProfileView toAuthorProfile(User author, Optional<User> viewer) {
+        return viewer
+                .map(it -> toProfileViewForViewer(author, it))
+                .orElseGet(() -> toUnfollowedProfileView(author));
     }
 }
@@ -0,0 +1,25 @@
+package com.realworld.springmongo.article;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@Value
+@ConfigurationProperties(prefix = "article.favorites-cleanup")
+@ConstructorBinding
+public class FavoritesCleanupProperties {
+    boolean enabled;
+    Duration interval;
+    int batchSize;
+
+    public FavoritesCleanupProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("1h") Duration interval,
+                                      @DefaultValue("500") int batchSize) {
+        this.enabled = enabled;
+        this.interval = interval;
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,191 @@
+package com.realworld.springmongo.article;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind layer for favoritesCount. When enabled, favorite deltas are summed in memory per article
+ * and written with one unordered bulk of $inc per flush, so a hot article takes one write per flush
+ * instead of one per favorite. Views add the pending deltas to the persisted count.
+ * Deltas not flushed when the process dies are lost, the favorite sets of users stay exact.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class FavoritesCounter implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private final ArticleRepository articleRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final FavoritesCounterProperties properties;
+
+    /**
+     * Pending and flushing delta of every article in one entry, compute of ConcurrentHashMap is atomic per key,
+     * so a delta moves between them without being missed or counted twice by {@link #countOf}.
+     */
+    private final Map<String, Delta> deltas = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    @Nullable
+    private Disposable scheduledFlushes;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduledFlushes = Flux.interval(properties.getFlushInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduledFlushes != null) {
+            scheduledFlushes.dispose();
+        }
+        if (!properties.isEnabled()) {
+            return;
+        }
+        flushingDone().then(Mono.defer(this::flush)).block(properties.getShutdownDrainTimeout());
+    }
+
+    /**
+     * Changes favoritesCount of the article by delta and returns the article to build a view from, empty when it doesn't exist.
+     * When write-behind is disabled the count is incremented in the database right away and the updated article is returned.
+     */
+    public Mono<Article> increment(String articleId, int delta) {
+        if (!properties.isEnabled()) {
+            return articleRepository.incrementFavoritesCount(articleId, delta);
+        }
+        deltas.compute(articleId, (id, current) -> Delta.orZero(current).addPending(delta));
+        if (pendingChanges.incrementAndGet() >= properties.getMaxPendingDeltas()) {
+            flush().subscribe();
+        }
+        return articleRepository.findById(articleId);
+    }
+
+    /**
+     * Returns persisted count of the article plus deltas that are not written yet.
+     */
+    public int countOf(String articleId, int persistedCount) {
+        if (!properties.isEnabled()) {
+            return persistedCount;
+        }
+        var delta = deltas.get(articleId);
+        return delta == null ? persistedCount : (int) (persistedCount + delta.getPending() + delta.getFlushing());
+    }
+
+    Mono<Void> flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        pendingChanges.set(0);
+        var flushed = new HashMap<String, Long>();
+        for (var articleId : deltas.keySet()) {
+            deltas.computeIfPresent(articleId, (id, delta) -> {
+                if (delta.getPending() != 0) {
+                    flushed.put(id, delta.getPending());
+                }
+                return delta.startFlush();
+            });
+        }
+        if (flushed.isEmpty()) {
+            flushing.set(false);
+            return Mono.empty();
+        }
+        return writeDeltas(flushed)
+                .doOnSuccess(result -> flushed.forEach((articleId, delta) -> deltas.computeIfPresent(articleId, (id, current) -> current.finishFlush(delta))))
+                .doOnError(error -> {
+                    log.warn("Failed to flush favorites count of {} articles, retrying on the next flush", flushed.size(), error);
+                    flushed.forEach((articleId, delta) -> deltas.computeIfPresent(articleId, (id, current) -> current.failFlush(delta)));
+                })
+                .then()
+                .onErrorResume(error -> Mono.empty())
+                .doFinally(signal -> flushing.set(false));
+    }
+
+    /**
+     * Emits once the bulk write is acknowledged, the flushed deltas are dropped from the overlay in the same signal.
+     */
+    private Mono<BulkWriteResult> writeDeltas(Map<String, Long> deltas) {
+        List<UpdateOneModel<Document>> updates = deltas.entrySet().stream()
+                .map(delta -> new UpdateOneModel<Document>(Filters.eq("_id", delta.getKey()), Updates.inc(Article.FAVORITES_COUNT_FIELD_NAME, delta.getValue())))
+                .collect(Collectors.toList());
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Article.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false))));
+    }
+
+    private Mono<Void> flushingDone() {
+        return Mono.fromCallable(flushing::get)
+                .filter(inProgress -> !inProgress)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(properties.getFlushInterval().dividedBy(10)))
+                .then();
+    }
+
+    /**
+     * Deltas of one article. Entries with nothing pending and nothing flushing are removed.
+     */
+    @Value
+    private static class Delta {
+        private static final Delta ZERO = new Delta(0, 0);
+
+        long pending;
+        long flushing;
+
+        static Delta orZero(@Nullable Delta delta) {
+            return delta == null ? ZERO : delta;
+        }
+
+        @Nullable
+        Delta addPending(long delta) {
+            return orNull(pending + delta, flushing);
+        }
+
+        @Nullable
+        Delta startFlush() {
+            return orNull(0, flushing + pending);
+        }
+
+        @Nullable
+        Delta finishFlush(long flushed) {
+            return orNull(pending, flushing - flushed);
+        }
+
+        @Nullable
+        Delta failFlush(long flushed) {
+            return orNull(pending + flushed, flushing - flushed);
+        }
+
+        @Nullable
+        private static Delta orNull(long pending, long flushing) {
+            return pending == 0 && flushing == 0 ? null : new Delta(pending, flushing);
+        }
+    }
+}
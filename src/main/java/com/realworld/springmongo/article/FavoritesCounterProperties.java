@@ -0,0 +1,28 @@
+package com.realworld.springmongo.article;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@Value
+@ConfigurationProperties(prefix = "article.favorites-counter")
+@ConstructorBinding
+public class FavoritesCounterProperties {
+    boolean enabled;
+    Duration flushInterval;
+    int maxPendingDeltas;
+    Duration shutdownDrainTimeout;
+
+    public FavoritesCounterProperties(@DefaultValue("false") boolean enabled,
+                                      @DefaultValue("1s") Duration flushInterval,
+                                      @DefaultValue("10000") int maxPendingDeltas,
+                                      @DefaultValue("10s") Duration shutdownDrainTimeout) {
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.maxPendingDeltas = maxPendingDeltas;
+        this.shutdownDrainTimeout = shutdownDrainTimeout;
+    }
+}
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.experimental.Accessors;
 import lombok.experimental.FieldDefaults;
 
+import java.util.List;
+
 @Data
 @Accessors(chain = true)
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -13,6 +15,11 @@ public class FindArticlesRequest {
     int limit = 0;
     int offset = 20;
     String authorId = null;
-    String tag = null;
+    /**
+     * With {@link TagMode#ALL} the least used tag goes first, since only the first tag bounds the index scan.
+     */
+    List<String> tags = List.of();
+    TagMode tagMode = TagMode.ALL;
     User favoritedBy = null;
+    ArticleCursor cursor = null;
 }
@@ -0,0 +1,88 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.dto.ArticleView;
+import com.realworld.springmongo.user.User;
+import com.realworld.springmongo.user.dto.ProfileView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process bus of new articles pushed to followers of their authors connected to this instance.
+ * Every connection has its own bounded buffer that drops the oldest articles when the client doesn't keep up,
+ * so a slow client holds back neither other connections nor article writes.
+ * Idle connections get comment-only heartbeats to stay open through proxies.
+ * Articles created on other instances are not pushed, followings changed after connecting apply on reconnect.
+ */
+@Component
+class LiveFeed {
+
+    static final String CONNECTIONS_METRIC = "article.live-feed.connections";
+    static final String FAN_OUT_METRIC = "article.live-feed.fan-out";
+    static final String DROPPED_METRIC = "article.live-feed.dropped";
+
+    private final LiveFeedProperties properties;
+    private final Sinks.Many<NewArticle> newArticles = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Timer fanOutTimer;
+    private final Counter droppedCounter;
+
+    LiveFeed(LiveFeedProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        meterRegistry.gauge(CONNECTIONS_METRIC, connections);
+        this.fanOutTimer = Timer.builder(FAN_OUT_METRIC)
+                .description("Time from creating an article to passing it to a connected follower")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder(DROPPED_METRIC)
+                .description("New articles dropped from buffers of slow connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The view is built once for all followers, their own favorites can't include an article that was just created.
+     */
+    public void publish(Article article, User author) {
+        var view = ArticleView.toUnfavoredArticleView(article, ProfileView.toFollowedProfileView(author));
+        var newArticle = new NewArticle(author.getId(), view, System.nanoTime());
+        // a sink accepts one emission at a time, without subscribers the article is simply not pushed
+        synchronized (newArticles) {
+            newArticles.tryEmitNext(newArticle);
+        }
+    }
+
+    /**
+     * Merge prefetches a single article, so apart from it articles wait only in the bounded buffer.
+     * Heartbeats a slow connection isn't ready for are dropped, one pending heartbeat keeps it alive.
+     */
+    public Flux<ServerSentEvent<ArticleView>> connect(User follower) {
+        var followingIds = Set.copyOf(follower.getFollowingIds());
+        var articles = newArticles.asFlux()
+                .filter(newArticle -> followingIds.contains(newArticle.getAuthorId()))
+                .onBackpressureBuffer(properties.getBufferSize(), dropped -> droppedCounter.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                .doOnNext(newArticle -> fanOutTimer.record(System.nanoTime() - newArticle.getCreatedAtNanos(), TimeUnit.NANOSECONDS))
+                .map(newArticle -> ServerSentEvent.builder(newArticle.getArticle()).build());
+        var heartbeats = Flux.interval(properties.getHeartbeatInterval())
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<ArticleView>builder().comment("heartbeat").build());
+        return Flux.merge(1, articles, heartbeats)
+                .doOnSubscribe(subscription -> connections.incrementAndGet())
+                .doFinally(signal -> connections.decrementAndGet());
+    }
+
+    @Value
+    private static class NewArticle {
+        String authorId;
+        ArticleView article;
+        long createdAtNanos;
+    }
+}
@@ -0,0 +1,25 @@
+package com.realworld.springmongo.article;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@Value
+@ConfigurationProperties(prefix = "article.live-feed")
+@ConstructorBinding
+public class LiveFeedProperties {
+    /**
+     * New articles kept for a connection that doesn't keep up, the oldest are dropped beyond it.
+     */
+    int bufferSize;
+    Duration heartbeatInterval;
+
+    public LiveFeedProperties(@DefaultValue("64") int bufferSize,
+                              @DefaultValue("15s") Duration heartbeatInterval) {
+        this.bufferSize = bufferSize;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+}
@@ -0,0 +1,110 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.lib.BatchJobs;
+import com.realworld.springmongo.user.User;
+import com.realworld.springmongo.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Removes ids of deleted articles from favorites of users, so they don't grow the $in lists of favorited filters.
+ * Users are walked in batches ordered by id. Favorites of a batch are checked with one query on article ids
+ * and stale ones are pulled with one bulk write, so a batch costs three round trips however many users it has.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class StaleFavoritesCleanup implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final String ID_FIELD_NAME = "_id";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ArticleRepository articleRepository;
+    private final UserRepository userRepository;
+    private final FavoritesCleanupProperties properties;
+
+    @Nullable
+    private Disposable scheduledCleanups;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduledCleanups = BatchJobs.schedule("remove stale favorites", properties.getInterval(), properties.getInterval(), () -> cleanUp()
+                .doOnNext(cleanedUsers -> log.info("Removed stale favorites of {} users", cleanedUsers)));
+    }
+
+    @Override
+    public void destroy() {
+        BatchJobs.dispose(scheduledCleanups);
+    }
+
+    /**
+     * Returns the number of users whose favorites were changed.
+     */
+    public Mono<Long> cleanUp() {
+        return BatchJobs.walkById(this::findBatchWithFavorites)
+                .concatMap(this::cleanUpBatch)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> cleanUpBatch(List<Document> users) {
+        var favoriteIds = users.stream()
+                .flatMap(user -> favoriteArticleIds(user).stream())
+                .collect(Collectors.toSet());
+        return articleRepository.findExistingArticleIds(favoriteIds)
+                .collect(Collectors.toSet())
+                .flatMap(existingIds -> userRepository.pullFavoriteArticleIds(staleFavoritesByUserId(users, existingIds)))
+                .map(Integer::longValue);
+    }
+
+    private Map<String, List<String>> staleFavoritesByUserId(List<Document> users, Set<String> existingIds) {
+        var staleFavorites = new HashMap<String, List<String>>();
+        for (var user : users) {
+            var stale = favoriteArticleIds(user).stream()
+                    .filter(articleId -> !existingIds.contains(articleId))
+                    .collect(Collectors.toList());
+            if (!stale.isEmpty()) {
+                staleFavorites.put(user.getString(ID_FIELD_NAME), stale);
+            }
+        }
+        return staleFavorites;
+    }
+
+    private Mono<List<Document>> findBatchWithFavorites(@Nullable String afterUserId) {
+        var criteria = where(User.FAVORITE_ARTICLE_IDS_FIELD_NAME + ".0").exists(true);
+        if (afterUserId != null) {
+            criteria = criteria.and(ID_FIELD_NAME).gt(afterUserId);
+        }
+        var query = new Query(criteria)
+                .with(Sort.by(ID_FIELD_NAME))
+                .limit(properties.getBatchSize());
+        query.fields().include(User.FAVORITE_ARTICLE_IDS_FIELD_NAME);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(User.class)).collectList();
+    }
+
+    private List<String> favoriteArticleIds(Document user) {
+        return user.getList(User.FAVORITE_ARTICLE_IDS_FIELD_NAME, String.class);
+    }
+}
@@ -12,13 +12,26 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Data
 @AllArgsConstructor
 public class Tag {
+    public static final String TAG_NAME_FIELD_NAME = "tagName";
+    public static final String ARTICLES_COUNT_FIELD_NAME = "articlesCount";
+
     @Id
     private String id;
 
     @Indexed(unique = true)
     private final String tagName;
 
+    /**
+     * Number of articles with the tag, changed incrementally when articles are created and deleted.
+     */
+    @Indexed
+    private long articlesCount;
+
     public static Tag of(String tag) {
-        return new Tag(null, tag);
+        return of(tag, 0);
+    }
+
+    public static Tag of(String tag, long articlesCount) {
+        return new Tag(null, tag, articlesCount);
     }
 }
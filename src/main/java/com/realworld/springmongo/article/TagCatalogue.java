@@ -0,0 +1,205 @@
+package com.realworld.springmongo.article;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realworld.springmongo.article.dto.TagListView;
+import com.realworld.springmongo.article.repository.TagRepository;
+import com.realworld.springmongo.change.ChangesMissedEvent;
+import com.realworld.springmongo.change.TagChangedEvent;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the tag list sorted by articlesCount and its JSON in memory, so reading tags makes no I/O.
+ * JSON of a top-N list is written on its first read and kept until the next refresh.
+ * Prefix suggestions are looked up in the same {@link TagIndex}.
+ * A read of a copy older than the refresh interval starts a refresh in the background and still gets the old copy.
+ * Only the very first read waits for the tags to be loaded.
+ */
+@Slf4j
+@Component
+class TagCatalogue {
+
+    private final TagRepository tagRepository;
+    private final ObjectMapper objectMapper;
+    private final TagCatalogueProperties properties;
+    private final Mono<Snapshot> firstLoad;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+    /**
+     * Tags added by this instance during every running load. A load may have read the tags before they were saved,
+     * so they are added to what it read before it replaces the snapshot.
+     */
+    private final Set<Set<String>> tagsAddedDuringLoads = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    @Nullable
+    private volatile Snapshot snapshot;
+
+    TagCatalogue(TagRepository tagRepository, ObjectMapper objectMapper, TagCatalogueProperties properties) {
+        this.tagRepository = tagRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.firstLoad = Mono.defer(this::load)
+                .cache(loaded -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    public Mono<TagListView> getTags(@Nullable Integer top) {
+        return getSnapshot().map(current -> page(current, top).getView());
+    }
+
+    public Mono<byte[]> getTagsJson(@Nullable Integer top) {
+        return getSnapshot().map(current -> page(current, top).getJson());
+    }
+
+    public Mono<TagListView> suggest(String prefix, int limit) {
+        return getSnapshot().map(current -> new TagListView().setTags(current.getTags().suggest(prefix, limit)));
+    }
+
+    /**
+     * Returns the tags ordered by articlesCount, least used first. Tags unknown to the catalogue come first,
+     * they are either new or not used at all.
+     */
+    public Mono<List<String>> leastUsedFirst(Collection<String> tagNames) {
+        return getSnapshot().map(current -> tagNames.stream()
+                .sorted(Comparator.comparingLong(current.getTags()::articlesCount))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Adds tags saved by this instance without reloading all tags. Counts of other tags are updated by the next refresh.
+     */
+    public synchronized void addNewTags(Collection<String> tagNames) {
+        tagsAddedDuringLoads.forEach(added -> added.addAll(tagNames));
+        var current = snapshot;
+        if (current == null) {
+            refreshInBackground();
+            return;
+        }
+        var tags = current.getTags().withNewTags(tagNames);
+        if (tags != current.getTags()) {
+            snapshot = new Snapshot(tags, new ConcurrentHashMap<>(), current.getLoadedAtNanos());
+        }
+    }
+
+    /**
+     * Tags added or deleted by any instance are loaded right away, changed articlesCount waits for the next refresh.
+     */
+    @EventListener
+    public void onTagChanged(TagChangedEvent event) {
+        if (event.isInsert() || event.isDelete()) {
+            refreshInBackground();
+        }
+    }
+
+    @EventListener
+    public void onChangesMissed(ChangesMissedEvent event) {
+        refreshInBackground();
+    }
+
+    /**
+     * A refresh requested while another one is running is started again when it ends,
+     * so tags saved during a refresh are not missed.
+     */
+    public void refreshInBackground() {
+        refreshRequested.set(true);
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshRequested.set(false);
+        load().doFinally(signal -> {
+            refreshing.set(false);
+            if (refreshRequested.get()) {
+                refreshInBackground();
+            }
+        }).subscribe(loaded -> {
+        }, error -> log.warn("Failed to refresh tags, serving the previous ones", error));
+    }
+
+    private Mono<Snapshot> getSnapshot() {
+        var current = snapshot;
+        if (current == null) {
+            return firstLoad;
+        }
+        if (current.isOlderThan(properties.getRefreshInterval())) {
+            refreshInBackground();
+        }
+        return Mono.just(current);
+    }
+
+    private Mono<Snapshot> load() {
+        return Mono.defer(() -> {
+            var addedTags = startLoading();
+            return tagRepository.findAll()
+                    .collectList()
+                    .map(tags -> finishLoading(tags, addedTags))
+                    .doFinally(signal -> stopLoading(addedTags));
+        });
+    }
+
+    private synchronized Set<String> startLoading() {
+        var addedTags = new HashSet<String>();
+        tagsAddedDuringLoads.add(addedTags);
+        return addedTags;
+    }
+
+    private synchronized Snapshot finishLoading(List<Tag> tags, Set<String> addedTags) {
+        var loaded = new Snapshot(TagIndex.of(tags).withNewTags(addedTags), new ConcurrentHashMap<>(), System.nanoTime());
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private synchronized void stopLoading(Set<String> addedTags) {
+        tagsAddedDuringLoads.remove(addedTags);
+    }
+
+    private Page page(Snapshot snapshot, @Nullable Integer top) {
+        var tags = snapshot.getTags();
+        var size = top == null ? tags.size() : Math.min(top, tags.size());
+        return snapshot.getPages().computeIfAbsent(size, it -> {
+            var view = new TagListView().setTags(tags.mostUsed(it));
+            return new Page(view, toJson(view));
+        });
+    }
+
+    private byte[] toJson(TagListView view) {
+        try {
+            return objectMapper.writeValueAsBytes(view);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write tags as JSON", e);
+        }
+    }
+
+    @Value
+    private static class Snapshot {
+        TagIndex tags;
+        Map<Integer, Page> pages;
+        long loadedAtNanos;
+
+        boolean isOlderThan(Duration age) {
+            return System.nanoTime() - loadedAtNanos > age.toNanos();
+        }
+    }
+
+    @Value
+    private static class Page {
+        TagListView view;
+        byte[] json;
+    }
+}
@@ -0,0 +1,22 @@
+package com.realworld.springmongo.article;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@Value
+@ConfigurationProperties(prefix = "article.tag-catalogue")
+@ConstructorBinding
+public class TagCatalogueProperties {
+    Duration refreshInterval;
+    Duration cleanupInterval;
+
+    public TagCatalogueProperties(@DefaultValue("30s") Duration refreshInterval,
+                                  @DefaultValue("1h") Duration cleanupInterval) {
+        this.refreshInterval = refreshInterval;
+        this.cleanupInterval = cleanupInterval;
+    }
+}
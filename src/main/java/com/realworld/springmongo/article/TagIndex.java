@@ -0,0 +1,195 @@
+package com.realworld.springmongo.article;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable tag names with articlesCount kept in two sorted arrays: most used first for top lists
+ * and alphabetically for prefix lookups. Adding tags copies the arrays, reads never lock.
+ */
+class TagIndex {
+
+    /**
+     * Prefix ranges up to this size are ranked directly, larger ones are found faster by walking the most used tags.
+     */
+    private static final int RANKED_RANGE_LIMIT = 4096;
+
+    private final String[] mostUsedNames;
+    private final long[] mostUsedCounts;
+    private final String[] sortedNames;
+    private final long[] sortedCounts;
+
+    private TagIndex(String[] mostUsedNames, long[] mostUsedCounts, String[] sortedNames, long[] sortedCounts) {
+        this.mostUsedNames = mostUsedNames;
+        this.mostUsedCounts = mostUsedCounts;
+        this.sortedNames = sortedNames;
+        this.sortedCounts = sortedCounts;
+    }
+
+    public static TagIndex of(Collection<Tag> tags) {
+        var mostUsed = tags.stream()
+                .sorted(Comparator.comparingLong(Tag::getArticlesCount).reversed().thenComparing(Tag::getTagName))
+                .collect(Collectors.toList());
+        var sorted = tags.stream()
+                .sorted(Comparator.comparing(Tag::getTagName))
+                .collect(Collectors.toList());
+        return new TagIndex(
+                mostUsed.stream().map(Tag::getTagName).toArray(String[]::new),
+                mostUsed.stream().mapToLong(Tag::getArticlesCount).toArray(),
+                sorted.stream().map(Tag::getTagName).toArray(String[]::new),
+                sorted.stream().mapToLong(Tag::getArticlesCount).toArray());
+    }
+
+    public int size() {
+        return sortedNames.length;
+    }
+
+    public List<String> mostUsed(int limit) {
+        return Arrays.asList(mostUsedNames).subList(0, Math.min(limit, mostUsedNames.length));
+    }
+
+    /**
+     * Returns articlesCount of the tag, 0 for a tag that is not in the index.
+     */
+    public long articlesCount(String tagName) {
+        var index = Arrays.binarySearch(sortedNames, tagName);
+        return index < 0 ? 0 : sortedCounts[index];
+    }
+
+    /**
+     * Returns up to limit tags starting with the prefix, most used first.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix.isEmpty()) {
+            return mostUsed(limit);
+        }
+        var from = lowerBound(sortedNames, prefix);
+        var to = prefixEnd(prefix, from);
+        if (to - from > RANKED_RANGE_LIMIT) {
+            return findMostUsedWithPrefix(prefix, limit);
+        }
+        return rankRange(from, to, limit);
+    }
+
+    /**
+     * Returns index with the given tags added with articlesCount 1, tags that are already present are skipped.
+     */
+    public TagIndex withNewTags(Collection<String> tagNames) {
+        var newNames = tagNames.stream()
+                .distinct()
+                .filter(name -> Arrays.binarySearch(sortedNames, name) < 0)
+                .sorted()
+                .toArray(String[]::new);
+        if (newNames.length == 0) {
+            return this;
+        }
+        var mostUsedNames = this.mostUsedNames;
+        var mostUsedCounts = this.mostUsedCounts;
+        var sortedNames = this.sortedNames;
+        var sortedCounts = this.sortedCounts;
+        for (var name : newNames) {
+            var mostUsedIndex = mostUsedInsertionIndex(mostUsedNames, mostUsedCounts, name);
+            mostUsedNames = insert(mostUsedNames, mostUsedIndex, name);
+            mostUsedCounts = insert(mostUsedCounts, mostUsedIndex, 1);
+            var sortedIndex = lowerBound(sortedNames, name);
+            sortedNames = insert(sortedNames, sortedIndex, name);
+            sortedCounts = insert(sortedCounts, sortedIndex, 1);
+        }
+        return new TagIndex(mostUsedNames, mostUsedCounts, sortedNames, sortedCounts);
+    }
+
+    private List<String> findMostUsedWithPrefix(String prefix, int limit) {
+        var result = new ArrayList<String>(limit);
+        for (var i = 0; i < mostUsedNames.length && result.size() < limit; i++) {
+            if (mostUsedNames[i].startsWith(prefix)) {
+                result.add(mostUsedNames[i]);
+            }
+        }
+        return result;
+    }
+
+    private List<String> rankRange(int from, int to, int limit) {
+        Comparator<Integer> leastUsedFirst = Comparator.<Integer>comparingLong(i -> sortedCounts[i])
+                .thenComparing(i -> sortedNames[i], Comparator.reverseOrder());
+        var top = new PriorityQueue<>(leastUsedFirst);
+        for (var i = from; i < to; i++) {
+            top.add(i);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        var result = new ArrayList<String>(top.size());
+        while (!top.isEmpty()) {
+            result.add(sortedNames[top.poll()]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Names with the prefix follow each other from the first one, so the end of the range is found by binary search too.
+     */
+    private int prefixEnd(String prefix, int from) {
+        var low = from;
+        var high = sortedNames.length;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (sortedNames[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(String[] names, String name) {
+        var low = 0;
+        var high = names.length;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (names[middle].compareTo(name) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int mostUsedInsertionIndex(String[] names, long[] counts, String name) {
+        var low = 0;
+        var high = names.length;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (counts[middle] > 1 || counts[middle] == 1 && names[middle].compareTo(name) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String[] insert(String[] array, int index, String value) {
+        var result = new String[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static long[] insert(long[] array, int index, long value) {
+        var result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.exceptions.InvalidRequestException;
+import org.springframework.lang.Nullable;
+
+public enum TagMode {
+    /**
+     * Finds articles with at least one of the tags.
+     */
+    ANY,
+    /**
+     * Finds articles with every one of the tags.
+     */
+    ALL;
+
+    /**
+     * Reads any or all in any case, a missing mode is {@link #ALL} like filtering by a single tag always was.
+     */
+    public static TagMode parse(@Nullable String mode) {
+        if (mode == null) {
+            return ALL;
+        }
+        for (var value : values()) {
+            if (value.name().equalsIgnoreCase(mode)) {
+                return value;
+            }
+        }
+        throw new InvalidRequestException("Tag mode", "must be any or all");
+    }
+}
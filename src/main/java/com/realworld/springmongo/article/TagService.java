@@ -0,0 +1,67 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps articlesCount of tags in step with articles, every article change is one bulk write for all its tags.
+ * The write can't be skipped for existing tags since their counts change too. Tags already handed to the
+ * {@link TagCatalogue} by this instance are remembered, so only tags new to it are added there.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class TagService {
+
+    private static final int MAX_CATALOGUED_TAGS = 10_000;
+
+    private final TagRepository tagRepository;
+    private final TagCatalogue tagCatalogue;
+
+    private final Set<String> cataloguedTags = ConcurrentHashMap.newKeySet();
+
+    public Mono<Void> addArticleTags(Collection<String> tags) {
+        var uncataloguedTags = tags.stream()
+                .filter(tag -> !cataloguedTags.contains(tag))
+                .collect(Collectors.toSet());
+        return tagRepository.incrementArticlesCounts(tags, 1)
+                .doOnSuccess(nothing -> {
+                    if (!uncataloguedTags.isEmpty()) {
+                        remember(uncataloguedTags);
+                        tagCatalogue.addNewTags(uncataloguedTags);
+                    }
+                });
+    }
+
+    public Mono<Void> removeArticleTags(Collection<String> tags) {
+        return tagRepository.incrementArticlesCounts(tags, -1);
+    }
+
+    /**
+     * Starts counting tags of a new article without waiting for it. A failed write is only logged.
+     */
+    public void addArticleTagsInBackground(Collection<String> tags) {
+        addArticleTags(tags).subscribe(nothing -> {
+        }, error -> log.warn("Failed to count tags {} of a new article", tags, error));
+    }
+
+    public void removeArticleTagsInBackground(Collection<String> tags) {
+        removeArticleTags(tags).subscribe(nothing -> {
+        }, error -> log.warn("Failed to uncount tags {} of a deleted article", tags, error));
+    }
+
+    private void remember(Set<String> tags) {
+        if (cataloguedTags.size() + tags.size() > MAX_CATALOGUED_TAGS) {
+            cataloguedTags.clear();
+        }
+        cataloguedTags.addAll(tags);
+    }
+}
@@ -0,0 +1,87 @@
+package com.realworld.springmongo.article;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Materialized feed of one user: newest-first references to articles of the authors the user followed when it was built.
+ * Holds at most {@link TimelineProperties#getMaxLength()} entries, older ones are sliced off on push.
+ */
+@Document
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class Timeline {
+
+    public static final String OWNER_ID_FIELD_NAME = "ownerId";
+    public static final String ENTRIES_FIELD_NAME = "entries";
+    public static final String ENTRY_CREATED_AT_FIELD_NAME = "createdAt";
+    public static final String ENTRY_ARTICLE_ID_FIELD_NAME = "articleId";
+
+    @Id
+    @Getter
+    @EqualsAndHashCode.Include
+    private final String ownerId;
+
+    @Getter
+    private final List<String> followingIds;
+
+    @Getter
+    private final List<Entry> entries;
+
+    public Timeline(String ownerId, @Nullable List<String> followingIds, @Nullable List<Entry> entries) {
+        this.ownerId = ownerId;
+        this.followingIds = ofNullable(followingIds).orElse(List.of());
+        this.entries = ofNullable(entries).orElse(List.of());
+    }
+
+    public boolean isBuiltFor(Collection<String> currentFollowingIds) {
+        return new HashSet<>(followingIds).equals(new HashSet<>(currentFollowingIds));
+    }
+
+    /**
+     * Returns entries of the requested page or empty when the page reaches entries that were sliced off.
+     * Entries keep their creation time, so the next cursor can be built from them.
+     */
+    public Optional<List<Entry>> findPageEntries(@Nullable ArticleCursor cursor, int offset, int limit, int maxLength) {
+        Stream<Entry> remaining = cursor == null
+                ? entries.stream().skip(offset)
+                : entries.stream().filter(entry -> entry.isAfter(cursor));
+        var page = remaining
+                .limit(limit)
+                .collect(Collectors.toList());
+        if (page.size() < limit && entries.size() >= maxLength) {
+            return Optional.empty();
+        }
+        return Optional.of(page);
+    }
+
+    @Value
+    public static class Entry {
+        String articleId;
+        Instant createdAt;
+
+        public static Entry of(Article article) {
+            return new Entry(article.getId(), article.getCreatedAt());
+        }
+
+        boolean isAfter(ArticleCursor cursor) {
+            var comparedCreatedAt = createdAt.compareTo(cursor.getCreatedAt());
+            return comparedCreatedAt < 0 || comparedCreatedAt == 0 && articleId.compareTo(cursor.getId()) < 0;
+        }
+    }
+}
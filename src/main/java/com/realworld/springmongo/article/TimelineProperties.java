@@ -0,0 +1,19 @@
+package com.realworld.springmongo.article;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Value
+@ConfigurationProperties(prefix = "article.timeline")
+@ConstructorBinding
+public class TimelineProperties {
+    boolean enabled;
+    int maxLength;
+
+    public TimelineProperties(@DefaultValue("true") boolean enabled, @DefaultValue("500") int maxLength) {
+        this.enabled = enabled;
+        this.maxLength = maxLength;
+    }
+}
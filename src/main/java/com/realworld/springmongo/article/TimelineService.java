@@ -0,0 +1,145 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.article.repository.TimelineRepository;
+import com.realworld.springmongo.user.User;
+import com.realworld.springmongo.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Fans new articles out to the timelines of author followers, so a feed page is read by ids instead of
+ * scanning articles of every followed author.
+ * Timelines are built lazily on the first feed read and rebuilt when the user follows or unfollows somebody.
+ * Pages that can't be served from a timeline are left to the caller to read from articles.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class TimelineService {
+
+    private final TimelineRepository timelineRepository;
+    private final ArticleRepository articleRepository;
+    private final UserRepository userRepository;
+    private final TimelineProperties timelineProperties;
+
+    private final Set<String> rebuildingOwnerIds = ConcurrentHashMap.newKeySet();
+
+    public boolean isEnabled() {
+        return timelineProperties.isEnabled();
+    }
+
+    public Mono<Void> push(Article article) {
+        if (!isEnabled()) {
+            return Mono.empty();
+        }
+        return userRepository.findFollowerIds(article.getAuthorId())
+                .collectList()
+                .filter(followerIds -> !followerIds.isEmpty())
+                .flatMap(followerIds -> timelineRepository.pushEntry(followerIds, Timeline.Entry.of(article), timelineProperties.getMaxLength())
+                        .onErrorResume(error -> {
+                            log.warn("Failed to push article {} to timelines, dropping them to be rebuilt", article.getId(), error);
+                            return timelineRepository.deleteAllById(followerIds);
+                        }));
+    }
+
+    /**
+     * Pushes the article without keeping the author waiting for a write that grows with the number of followers.
+     * Timelines a failed push couldn't be dropped from are only logged.
+     */
+    public void pushInBackground(Article article) {
+        push(article).subscribe(nothing -> {
+        }, error -> log.warn("Failed to push article {} to timelines", article.getId(), error));
+    }
+
+    /**
+     * Returns empty when the page can't be served from the timeline and has to be read from articles.
+     * The next cursor is taken from the timeline entries, so articles deleted since they were pushed
+     * make the page shorter without ending the feed early.
+     */
+    public Mono<Page> findTimelinePage(User user, @Nullable ArticleCursor cursor, int offset, int limit) {
+        return findWarmTimeline(user)
+                .flatMap(timeline -> Mono.justOrEmpty(timeline.findPageEntries(cursor, offset, limit, timelineProperties.getMaxLength())))
+                .flatMap(entries -> findArticlesInOrder(entries)
+                        .map(articles -> new Page(articles, nextPage(entries, limit))));
+    }
+
+    /**
+     * Returns empty and starts building the timeline in the background when it is missing or was built for other followings.
+     */
+    private Mono<Timeline> findWarmTimeline(User user) {
+        return timelineRepository.findById(user.getId())
+                .filter(timeline -> timeline.isBuiltFor(user.getFollowingIds()))
+                .switchIfEmpty(Mono.fromRunnable(() -> rebuildInBackground(user)));
+    }
+
+    /**
+     * Feed reads during a build don't start another one, a read after it ends rebuilds again if followings changed meanwhile.
+     */
+    private void rebuildInBackground(User user) {
+        if (!rebuildingOwnerIds.add(user.getId())) {
+            return;
+        }
+        rebuild(user)
+                .doFinally(signal -> rebuildingOwnerIds.remove(user.getId()))
+                .subscribe(timeline -> {
+                }, error -> log.warn("Failed to build timeline of user {}", user.getId(), error));
+    }
+
+    /**
+     * Articles created while the timeline is being built may be pushed before it is saved and miss it,
+     * so the newest entries are read again after the save and the missing ones pushed to it.
+     */
+    private Mono<Timeline> rebuild(User user) {
+        var followingIds = user.getFollowingIds();
+        var maxLength = timelineProperties.getMaxLength();
+        return articleRepository.findNewestTimelineEntriesByAuthorIds(followingIds, maxLength)
+                .collectList()
+                .flatMap(entries -> timelineRepository.save(new Timeline(user.getId(), followingIds, entries)))
+                .flatMap(timeline -> articleRepository.findNewestTimelineEntriesByAuthorIds(followingIds, maxLength)
+                        .filter(entry -> !timeline.getEntries().contains(entry))
+                        .concatMap(entry -> timelineRepository.pushEntry(List.of(user.getId()), entry, maxLength))
+                        .then(Mono.just(timeline)));
+    }
+
+    @Nullable
+    private static ArticleCursor nextPage(List<Timeline.Entry> entries, int limit) {
+        if (entries.isEmpty() || entries.size() < limit) {
+            return null;
+        }
+        return ArticleCursor.of(entries.get(entries.size() - 1));
+    }
+
+    private Mono<List<ArticleSummary>> findArticlesInOrder(List<Timeline.Entry> entries) {
+        if (entries.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        var positions = new HashMap<String, Integer>();
+        for (var i = 0; i < entries.size(); i++) {
+            positions.put(entries.get(i).getArticleId(), i);
+        }
+        return articleRepository.findArticleSummariesByIds(positions.keySet())
+                .collectList()
+                .map(articles -> articles.stream()
+                        .sorted(Comparator.comparingInt(article -> positions.get(article.getId())))
+                        .collect(Collectors.toList()));
+    }
+
+    @Value
+    static class Page {
+        List<ArticleSummary> articles;
+        @Nullable
+        ArticleCursor nextCursor;
+    }
+}
@@ -0,0 +1,79 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.article.repository.TagRepository;
+import com.realworld.springmongo.lib.BatchJobs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Deletes tags whose articlesCount dropped to zero. Tags saved before articlesCount existed are counted
+ * from articles first, so they are not taken for unused ones. Tags counted as unused are recounted from articles
+ * before the delete, since a count change that failed to be written leaves articlesCount too low for good.
+ * Runs on start and then every cleanup interval.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class UnusedTagsCleanup implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private final TagRepository tagRepository;
+    private final ArticleRepository articleRepository;
+    private final TagCatalogue tagCatalogue;
+    private final TagCatalogueProperties properties;
+
+    @Nullable
+    private Disposable scheduledCleanups;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        scheduledCleanups = BatchJobs.schedule("delete unused tags", Duration.ZERO, properties.getCleanupInterval(), this::cleanUp);
+    }
+
+    @Override
+    public void destroy() {
+        BatchJobs.dispose(scheduledCleanups);
+    }
+
+    /**
+     * Returns the number of deleted tags.
+     */
+    public Mono<Long> cleanUp() {
+        return countTagsWithoutArticlesCount()
+                .then(recountUnusedTags())
+                .then(tagRepository.deleteUnusedTags())
+                .doOnNext(deletedTags -> {
+                    if (deletedTags > 0) {
+                        log.info("Deleted {} unused tags", deletedTags);
+                        tagCatalogue.refreshInBackground();
+                    }
+                });
+    }
+
+    private Mono<Void> countTagsWithoutArticlesCount() {
+        return tagRepository.findTagNamesWithoutArticlesCount()
+                .concatMap(tagName -> articleRepository.countByTags(tagName)
+                        .flatMap(articlesCount -> tagRepository.setMissingArticlesCount(tagName, articlesCount)))
+                .then();
+    }
+
+    private Mono<Void> recountUnusedTags() {
+        return tagRepository.findUnusedTagNames()
+                .concatMap(tagName -> articleRepository.countByTags(tagName)
+                        .filter(articlesCount -> articlesCount > 0)
+                        .flatMap(articlesCount -> {
+                            log.warn("Tag {} is used by {} articles but was counted as unused, fixing its count", tagName, articlesCount);
+                            return tagRepository.setUnusedTagArticlesCount(tagName, articlesCount);
+                        }))
+                .then();
+    }
+}
@@ -1,6 +1,7 @@
 package com.realworld.springmongo.article.dto;
 
 import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.ArticleSummary;
 import com.realworld.springmongo.user.User;
 import com.realworld.springmongo.user.dto.ProfileView;
 import lombok.AccessLevel;
@@ -49,7 +50,16 @@ public class ArticleView {
 
     ProfileView author;
 
+    /**
+     * Can be sent back with {@link UpdateArticleRequest} to update the article only if nobody changed it in between.
+     */
+    Long version;
+
     public static ArticleView toArticleView(Article article, ProfileView author, boolean favorited) {
+        return toArticleView(ArticleSummary.of(article), author, favorited);
+    }
+
+    public static ArticleView toArticleView(ArticleSummary article, ProfileView author, boolean favorited) {
         return new ArticleView()
                 .setSlug(article.getSlug())
                 .setTitle(article.getTitle())
@@ -60,7 +70,8 @@ public class ArticleView {
                 .setUpdatedAt(article.getUpdatedAt())
                 .setFavorited(favorited)
                 .setFavoritesCount(article.getFavoritesCount())
-                .setAuthor(author);
+                .setAuthor(author)
+                .setVersion(article.getVersion());
     }
 
     public static ArticleView ofOwnArticle(Article article, User articleOwner) {
@@ -71,7 +82,15 @@ public class ArticleView {
         return toArticleView(article, author, user.isFavoriteArticle(article));
     }
 
+    public static ArticleView toArticleViewForViewer(ArticleSummary article, ProfileView author, User user) {
+        return toArticleView(article, author, user.isFavoriteArticle(article));
+    }
+
     public static ArticleView toUnfavoredArticleView(Article article, ProfileView author) {
         return toArticleView(article, author, false);
     }
+
+    public static ArticleView toUnfavoredArticleView(ArticleSummary article, ProfileView author) {
+        return toArticleView(article, author, false);
+    }
 }
@@ -16,9 +16,10 @@ import lombok.experimental.FieldDefaults;
 public class CreateCommentRequest {
     String body;
 
-    public Comment toComment(String id, String authorId) {
+    public Comment toComment(String id, String articleId, String authorId) {
         return Comment.builder()
                 .id(id)
+                .articleId(articleId)
                 .authorId(authorId)
                 .body(body)
                 .build();
@@ -1,9 +1,11 @@
 package com.realworld.springmongo.article.dto;
 
+import com.realworld.springmongo.article.ArticleCursor;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.Accessors;
 import lombok.experimental.FieldDefaults;
+import org.springframework.lang.Nullable;
 
 import java.util.Collections;
 import java.util.List;
@@ -17,9 +19,17 @@ public class MultipleArticlesView {
 
     int articlesCount;
 
+    @Nullable
+    String nextCursor;
+
     public static MultipleArticlesView of(List<ArticleView> articles) {
         return new MultipleArticlesView()
                 .setArticles(articles)
                 .setArticlesCount(articles.size());
     }
+
+    public static MultipleArticlesView of(List<ArticleView> articles, @Nullable ArticleCursor nextCursor) {
+        return of(articles)
+                .setNextCursor(nextCursor == null ? null : nextCursor.encode());
+    }
 }
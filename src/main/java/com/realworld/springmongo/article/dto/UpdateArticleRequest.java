@@ -5,6 +5,7 @@ import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.Accessors;
 import lombok.experimental.FieldDefaults;
+import org.springframework.lang.Nullable;
 
 @Data
 @Accessors(chain = true)
@@ -18,4 +19,11 @@ public class UpdateArticleRequest {
 
     @NotBlankOrNull
     String body;
+
+    /**
+     * Version of the article the changes are based on. When present the update fails if the article has another version.
+     * Optional so clients that don't send it keep the last-write-wins update.
+     */
+    @Nullable
+    Long version;
 }
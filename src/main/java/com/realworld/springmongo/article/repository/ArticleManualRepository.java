@@ -1,64 +1,476 @@
 package com.realworld.springmongo.article.repository;
 
 import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.ArticleCursor;
+import com.realworld.springmongo.article.ArticleSummary;
+import com.realworld.springmongo.article.ArticleWithAuthor;
 import com.realworld.springmongo.article.FindArticlesRequest;
+import com.realworld.springmongo.article.TagMode;
+import com.realworld.springmongo.article.Timeline;
 import com.realworld.springmongo.user.User;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.lang.Nullable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import static java.util.Optional.ofNullable;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 public interface ArticleManualRepository {
-    Flux<Article> findNewestArticlesFilteredBy(@Nullable String tag,
+    /**
+     * When cursor is present articles are fetched with a range query after it and offset is ignored.
+     * Like all list queries it reads only {@link ArticleSummary#FIELD_NAMES}.
+     * With {@link TagMode#ALL} tags are expected least used first, the first one is the (tags, createdAt) index range.
+     */
+    Flux<ArticleSummary> findNewestArticlesFilteredBy(List<String> tags,
+                                               TagMode tagMode,
                                                @Nullable String authorId,
                                                @Nullable User favoritedBy,
+                                               @Nullable ArticleCursor cursor,
                                                int limit,
                                                int offset);
 
-    default Flux<Article> findNewestArticlesFilteredBy(FindArticlesRequest request) {
-        return findNewestArticlesFilteredBy(request.getTag(),
+    /**
+     * Counts all articles matching the filter with countDocuments. Without any filter the cheap estimated count
+     * from collection metadata is returned instead.
+     */
+    Mono<Long> countArticlesFilteredBy(List<String> tags,
+                                       TagMode tagMode,
+                                       @Nullable String authorId,
+                                       @Nullable User favoritedBy);
+
+    Flux<ArticleSummary> findNewestArticlesByAuthorIdsAfter(Collection<String> authorIds, ArticleCursor cursor, int limit);
+
+    /**
+     * Finds articles by the text index, highest $text score first and newest first among equal scores.
+     */
+    Flux<ArticleSummary> searchArticles(String text, int offset, int limit);
+
+    Mono<Long> countSearchedArticles(String text);
+
+    /**
+     * Same result as a single authorId $in query, but read with one (authorId, createdAt) index range per author
+     * merged newest-first, so every author stream stops as soon as the page is filled.
+     */
+    Flux<ArticleSummary> findNewestArticlesByAuthorIdsMerged(Collection<String> authorIds,
+                                                      @Nullable ArticleCursor cursor,
+                                                      int offset,
+                                                      int limit);
+
+    /**
+     * Reads only _id of the article by the unique slug index, for writes that reference the article without loading it.
+     */
+    Mono<String> findArticleIdBySlug(String slug);
+
+    /**
+     * Atomically adds delta to favoritesCount and returns the article after the update.
+     */
+    Mono<Article> incrementFavoritesCount(String articleId, int delta);
+
+    /**
+     * Sets only the given fields, updatedAt and the next version in one findAndModify matched by slug and author,
+     * and also by version when expectedVersion is present. Returns the updated article or empty when nothing matched.
+     * Without fields nothing is written and the matched article is returned as stored.
+     */
+    Mono<Article> updateArticleFields(String slug, String authorId, @Nullable Long expectedVersion, Map<String, Object> fields);
+
+    /**
+     * Deletes the article only when it is written by the author with one findAndModify and returns the deleted article.
+     * Returns empty both when there is no such article and when it has another author.
+     */
+    Mono<Article> findAndDeleteBySlugAndAuthorId(String slug, String authorId);
+
+    /**
+     * Returns ids of the given articles that still exist, read from the _id index only.
+     */
+    Flux<String> findExistingArticleIds(Collection<String> ids);
+
+    /**
+     * Returns summaries of existing articles with the given ids in no particular order.
+     */
+    Flux<ArticleSummary> findArticleSummariesByIds(Collection<String> ids);
+
+    /**
+     * Reads only id and createdAt of the newest articles to build a timeline without decoding whole articles.
+     */
+    Flux<Timeline.Entry> findNewestTimelineEntriesByAuthorIds(Collection<String> authorIds, int limit);
+
+    /**
+     * Same as {@link #findNewestArticlesFilteredBy(List, TagMode, String, User, ArticleCursor, int, int)} but joins authors in one aggregation.
+     */
+    Flux<ArticleWithAuthor> findNewestArticlesWithAuthorsFilteredBy(List<String> tags,
+                                                                    TagMode tagMode,
+                                                                    @Nullable String authorId,
+                                                                    @Nullable User favoritedBy,
+                                                                    @Nullable ArticleCursor cursor,
+                                                                    int limit,
+                                                                    int offset);
+
+    Flux<ArticleWithAuthor> findNewestArticlesWithAuthorsByAuthorIds(Collection<String> authorIds,
+                                                                     @Nullable ArticleCursor cursor,
+                                                                     int offset,
+                                                                     int limit);
+
+    default Flux<ArticleSummary> findNewestArticlesFilteredBy(@Nullable String tag,
+                                                       @Nullable String authorId,
+                                                       @Nullable User favoritedBy,
+                                                       @Nullable ArticleCursor cursor,
+                                                       int limit,
+                                                       int offset) {
+        return findNewestArticlesFilteredBy(tagList(tag), TagMode.ALL, authorId, favoritedBy, cursor, limit, offset);
+    }
+
+    default Flux<ArticleSummary> findNewestArticlesFilteredBy(@Nullable String tag,
+                                                       @Nullable String authorId,
+                                                       @Nullable User favoritedBy,
+                                                       int limit,
+                                                       int offset) {
+        return findNewestArticlesFilteredBy(tag, authorId, favoritedBy, null, limit, offset);
+    }
+
+    default Flux<ArticleSummary> findNewestArticlesFilteredBy(FindArticlesRequest request) {
+        return findNewestArticlesFilteredBy(request.getTags(),
+                request.getTagMode(),
                 request.getAuthorId(),
                 request.getFavoritedBy(),
+                request.getCursor(),
                 request.getLimit(),
                 request.getOffset());
     }
+
+    default Flux<ArticleWithAuthor> findNewestArticlesWithAuthorsFilteredBy(@Nullable String tag,
+                                                                            @Nullable String authorId,
+                                                                            @Nullable User favoritedBy,
+                                                                            @Nullable ArticleCursor cursor,
+                                                                            int limit,
+                                                                            int offset) {
+        return findNewestArticlesWithAuthorsFilteredBy(tagList(tag), TagMode.ALL, authorId, favoritedBy, cursor, limit, offset);
+    }
+
+    default Flux<ArticleWithAuthor> findNewestArticlesWithAuthorsFilteredBy(FindArticlesRequest request) {
+        return findNewestArticlesWithAuthorsFilteredBy(request.getTags(),
+                request.getTagMode(),
+                request.getAuthorId(),
+                request.getFavoritedBy(),
+                request.getCursor(),
+                request.getLimit(),
+                request.getOffset());
+    }
+
+    private static List<String> tagList(@Nullable String tag) {
+        return tag == null ? List.of() : List.of(tag);
+    }
 }
 
 @RequiredArgsConstructor
 class ArticleManualRepositoryImpl implements ArticleManualRepository {
 
+    /**
+     * Queries run with Document have no entity to map "id" to "_id", so they name the stored field.
+     */
+    private static final String DOCUMENT_ID_FIELD_NAME = "_id";
+    private static final String ARTICLE_FIELD_NAME = "article";
+    private static final String AUTHOR_FIELD_NAME = "author";
+    private static final List<String> AUTHOR_PROFILE_FIELD_NAMES = List.of("username", "bio", "image");
+    private static final int MAX_MERGE_PREFETCH = 32;
+
     private final ReactiveMongoTemplate mongoTemplate;
 
     @Override
-    public Flux<Article> findNewestArticlesFilteredBy(@Nullable String tag,
+    public Flux<ArticleSummary> findNewestArticlesFilteredBy(List<String> tags,
+                                                      TagMode tagMode,
                                                       @Nullable String authorId,
                                                       @Nullable User favoritedBy,
+                                                      @Nullable ArticleCursor cursor,
                                                       int limit,
                                                       int offset) {
         var query = new Query()
+                .limit(limit)
+                .with(ArticleRepository.NEWEST_ARTICLE_SORT);
+        if (cursor == null) {
+            query.skip(offset);
+        }
+        filterCriteria(tags, tagMode, authorId, favoritedBy, cursor).forEach(query::addCriteria);
+        return findSummaries(query);
+    }
+
+    @Override
+    public Mono<Long> countArticlesFilteredBy(List<String> tags,
+                                              TagMode tagMode,
+                                              @Nullable String authorId,
+                                              @Nullable User favoritedBy) {
+        var criteria = filterCriteria(tags, tagMode, authorId, favoritedBy, null);
+        if (criteria.isEmpty()) {
+            return mongoTemplate.estimatedCount(Article.class);
+        }
+        var query = new Query();
+        criteria.forEach(query::addCriteria);
+        return mongoTemplate.count(query, Article.class);
+    }
+
+    @Override
+    public Flux<ArticleSummary> searchArticles(String text, int offset, int limit) {
+        var query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .with(ArticleRepository.NEWEST_ARTICLE_SORT)
                 .skip(offset)
+                .limit(limit);
+        return findSummaries(query);
+    }
+
+    @Override
+    public Mono<Long> countSearchedArticles(String text) {
+        return mongoTemplate.count(TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text)), Article.class);
+    }
+
+    @Override
+    public Flux<ArticleSummary> findNewestArticlesByAuthorIdsAfter(Collection<String> authorIds, ArticleCursor cursor, int limit) {
+        var query = new Query()
+                .addCriteria(authorIdIn(authorIds))
+                .addCriteria(isAfter(cursor))
                 .limit(limit)
                 .with(ArticleRepository.NEWEST_ARTICLE_SORT);
+        return findSummaries(query);
+    }
+
+    @Override
+    public Flux<ArticleSummary> findNewestArticlesByAuthorIdsMerged(Collection<String> authorIds,
+                                                             @Nullable ArticleCursor cursor,
+                                                             int offset,
+                                                             int limit) {
+        if (limit <= 0) {
+            return Flux.empty();
+        }
+        var skip = cursor == null ? offset : 0;
+        var perAuthorLimit = skip + limit;
+        @SuppressWarnings("unchecked")
+        Publisher<ArticleSummary>[] authorStreams = authorIds.stream()
+                .distinct()
+                .map(authorId -> findNewestArticlesByAuthorId(authorId, cursor, perAuthorLimit))
+                .toArray(Publisher[]::new);
+        return Flux.mergeComparing(Math.min(perAuthorLimit, MAX_MERGE_PREFETCH), ArticleRepository.NEWEST_ARTICLE_ORDER, authorStreams)
+                .skip(skip)
+                .take(limit);
+    }
+
+    private Flux<ArticleSummary> findNewestArticlesByAuthorId(String authorId, @Nullable ArticleCursor cursor, int limit) {
+        var query = new Query()
+                .addCriteria(authorIdEquals(authorId))
+                .limit(limit)
+                .with(ArticleRepository.NEWEST_ARTICLE_SORT);
+        ofNullable(cursor)
+                .ifPresent(it -> query.addCriteria(isAfter(it)));
+        return findSummaries(query);
+    }
+
+    @Override
+    public Mono<String> findArticleIdBySlug(String slug) {
+        var query = new Query(where(Article.SLUG_FIELD_NAME).is(slug));
+        query.fields().include(Article.ID_FIELD_NAME);
+        return mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Article.class))
+                .map(document -> document.getString(DOCUMENT_ID_FIELD_NAME));
+    }
+
+    @Override
+    public Mono<Article> incrementFavoritesCount(String articleId, int delta) {
+        var update = new Update().inc(Article.FAVORITES_COUNT_FIELD_NAME, delta);
+        return mongoTemplate.findAndModify(new Query(where(Article.ID_FIELD_NAME).is(articleId)), update, FindAndModifyOptions.options().returnNew(true), Article.class);
+    }
+
+    @Override
+    public Mono<Article> updateArticleFields(String slug, String authorId, @Nullable Long expectedVersion, Map<String, Object> fields) {
+        var criteria = where(Article.SLUG_FIELD_NAME).is(slug)
+                .and(Article.AUTHOR_ID_FIELD_NAME).is(authorId);
+        if (expectedVersion != null) {
+            // articles without stored version are read as version 0
+            criteria.and(Article.VERSION_FIELD_NAME).in(expectedVersion == 0 ? Arrays.asList(0L, null) : List.of(expectedVersion));
+        }
+        if (fields.isEmpty()) {
+            return mongoTemplate.findOne(new Query(criteria), Article.class);
+        }
+        var update = new Update();
+        fields.forEach(update::set);
+        update.set(Article.UPDATED_AT_FIELD_NAME, Instant.now())
+                .inc(Article.VERSION_FIELD_NAME, 1);
+        return mongoTemplate.findAndModify(new Query(criteria), update, FindAndModifyOptions.options().returnNew(true), Article.class);
+    }
+
+    @Override
+    public Mono<Article> findAndDeleteBySlugAndAuthorId(String slug, String authorId) {
+        var query = new Query(where(Article.SLUG_FIELD_NAME).is(slug)
+                .and(Article.AUTHOR_ID_FIELD_NAME).is(authorId));
+        return mongoTemplate.findAndRemove(query, Article.class);
+    }
+
+    @Override
+    public Flux<String> findExistingArticleIds(Collection<String> ids) {
+        var query = new Query(where(DOCUMENT_ID_FIELD_NAME).in(ids));
+        query.fields().include(DOCUMENT_ID_FIELD_NAME);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Article.class))
+                .map(document -> document.getString(DOCUMENT_ID_FIELD_NAME));
+    }
+
+    @Override
+    public Flux<ArticleSummary> findArticleSummariesByIds(Collection<String> ids) {
+        return findSummaries(new Query(where(Article.ID_FIELD_NAME).in(ids)));
+    }
+
+    @Override
+    public Flux<Timeline.Entry> findNewestTimelineEntriesByAuthorIds(Collection<String> authorIds, int limit) {
+        var query = new Query()
+                .addCriteria(authorIdIn(authorIds))
+                .limit(limit)
+                .with(ArticleRepository.NEWEST_ARTICLE_SORT);
+        query.fields().include(Article.CREATED_AT_FIELD_NAME);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Article.class))
+                .map(document -> new Timeline.Entry(document.getString(DOCUMENT_ID_FIELD_NAME), document.getDate(Article.CREATED_AT_FIELD_NAME).toInstant()));
+    }
+
+    @Override
+    public Flux<ArticleWithAuthor> findNewestArticlesWithAuthorsFilteredBy(List<String> tags,
+                                                                           TagMode tagMode,
+                                                                           @Nullable String authorId,
+                                                                           @Nullable User favoritedBy,
+                                                                           @Nullable ArticleCursor cursor,
+                                                                           int limit,
+                                                                           int offset) {
+        var criteria = filterCriteria(tags, tagMode, authorId, favoritedBy, cursor);
+        return findNewestArticlesWithAuthors(criteria, cursor == null ? offset : 0, limit);
+    }
+
+    @Override
+    public Flux<ArticleWithAuthor> findNewestArticlesWithAuthorsByAuthorIds(Collection<String> authorIds,
+                                                                            @Nullable ArticleCursor cursor,
+                                                                            int offset,
+                                                                            int limit) {
+        var criteria = new ArrayList<Criteria>();
+        criteria.add(authorIdIn(authorIds));
+        ofNullable(cursor)
+                .ifPresent(it -> criteria.add(isAfter(it)));
+        return findNewestArticlesWithAuthors(criteria, cursor == null ? offset : 0, limit);
+    }
+
+    private Flux<ArticleSummary> findSummaries(Query query) {
+        query.fields().include(ArticleSummary.FIELD_NAMES.toArray(new String[0]));
+        return mongoTemplate.find(query, ArticleSummary.class, mongoTemplate.getCollectionName(Article.class));
+    }
+
+    private List<Criteria> filterCriteria(List<String> tags,
+                                          TagMode tagMode,
+                                          @Nullable String authorId,
+                                          @Nullable User favoritedBy,
+                                          @Nullable ArticleCursor cursor) {
+        var criteria = new ArrayList<Criteria>();
+        ofNullable(cursor)
+                .ifPresent(it -> criteria.add(isAfter(it)));
         ofNullable(favoritedBy)
-                .ifPresent(user -> query.addCriteria(isFavoriteArticleByUser(user)));
-        ofNullable(tag)
-                .ifPresent(it -> query.addCriteria(tagsContains(it)));
+                .ifPresent(user -> criteria.add(isFavoriteArticleByUser(user)));
+        if (!tags.isEmpty()) {
+            criteria.add(tagMode == TagMode.ANY ? tagsContainAny(tags) : tagsContainAll(tags));
+        }
         ofNullable(authorId)
-                .ifPresent(it -> query.addCriteria(authorIdEquals(it)));
-        return mongoTemplate.find(query, Article.class);
+                .ifPresent(it -> criteria.add(authorIdEquals(it)));
+        return criteria;
+    }
+
+    /**
+     * $match, $sort and paging run on articles first, so authors are looked up only for the articles of the page.
+     * Articles without author are kept with null author to not shorten the page.
+     */
+    private Flux<ArticleWithAuthor> findNewestArticlesWithAuthors(List<Criteria> criteria, int skip, int limit) {
+        var operations = new ArrayList<AggregationOperation>();
+        if (!criteria.isEmpty()) {
+            operations.add(Aggregation.match(new Criteria().andOperator(criteria.toArray(new Criteria[0]))));
+        }
+        operations.add(Aggregation.sort(ArticleRepository.NEWEST_ARTICLE_SORT));
+        if (skip > 0) {
+            operations.add(Aggregation.skip((long) skip));
+        }
+        if (limit > 0) {
+            operations.add(Aggregation.limit(limit));
+        }
+        operations.add(Aggregation.project(ArticleSummary.FIELD_NAMES.toArray(new String[0])));
+        operations.add(lookupAuthorProfile());
+        operations.add(context -> new Document("$unwind", new Document("path", "$" + AUTHOR_FIELD_NAME)
+                .append("preserveNullAndEmptyArrays", true)));
+        operations.add(context -> new Document("$project", new Document("_id", 0)
+                .append(ARTICLE_FIELD_NAME, "$$ROOT")
+                .append(AUTHOR_FIELD_NAME, "$" + AUTHOR_FIELD_NAME)));
+        var aggregation = Aggregation.newAggregation(Article.class, operations);
+        return mongoTemplate.aggregate(aggregation, ArticleWithAuthor.class);
+    }
+
+    private AggregationOperation lookupAuthorProfile() {
+        var authorProjection = new Document();
+        AUTHOR_PROFILE_FIELD_NAMES.forEach(field -> authorProjection.append(field, 1));
+        var authorPipeline = List.of(
+                new Document("$match", new Document("$expr", new Document("$eq", List.of("$_id", "$$authorId")))),
+                new Document("$project", authorProjection)
+        );
+        return context -> new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(User.class))
+                .append("let", new Document("authorId", "$" + Article.AUTHOR_ID_FIELD_NAME))
+                .append("pipeline", authorPipeline)
+                .append("as", AUTHOR_FIELD_NAME));
+    }
+
+    /**
+     * createdAt <= cursor bounds the index scan, $nor only filters out the already returned articles with the same createdAt.
+     * An equivalent $or is not used because it makes the planner consider blocking-sort plans.
+     */
+    private Criteria isAfter(ArticleCursor cursor) {
+        return where(Article.CREATED_AT_FIELD_NAME).lte(cursor.getCreatedAt())
+                .norOperator(where(Article.CREATED_AT_FIELD_NAME).is(cursor.getCreatedAt())
+                        .and(Article.ID_FIELD_NAME).gte(cursor.getId()));
     }
 
     private Criteria authorIdEquals(String it) {
         return where(Article.AUTHOR_ID_FIELD_NAME).is(it);
     }
 
-    private Criteria tagsContains(String it) {
-        return where(Article.TAGS_FIELD_NAME).all(it);
+    private Criteria authorIdIn(Collection<String> authorIds) {
+        return where(Article.AUTHOR_ID_FIELD_NAME).in(authorIds);
+    }
+
+    /**
+     * $in on the leading field of the (tags, createdAt) index is read as one newest-first range per tag
+     * merged by the server, so the sort is not blocking and an article with several of the tags is returned once.
+     */
+    private Criteria tagsContainAny(List<String> tags) {
+        if (tags.size() == 1) {
+            return where(Article.TAGS_FIELD_NAME).is(tags.get(0));
+        }
+        return where(Article.TAGS_FIELD_NAME).in(tags);
+    }
+
+    /**
+     * Only one tag can bound a multikey index scan, the others are checked on fetched articles.
+     * The first tag is always the equality, so the query shape and the cached plan stay the same
+     * while the scan is over the least used tag.
+     */
+    private Criteria tagsContainAll(List<String> tags) {
+        var first = where(Article.TAGS_FIELD_NAME).is(tags.get(0));
+        if (tags.size() == 1) {
+            return first;
+        }
+        return new Criteria().andOperator(first, where(Article.TAGS_FIELD_NAME).all(tags.subList(1, tags.size())));
     }
 
     private Criteria isFavoriteArticleByUser(User it) {
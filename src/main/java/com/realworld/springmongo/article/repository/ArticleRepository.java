@@ -1,31 +1,53 @@
 package com.realworld.springmongo.article.repository;
 
 import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.ArticleCursor;
+import com.realworld.springmongo.article.ArticleSummary;
 import com.realworld.springmongo.exceptions.InvalidRequestException;
 import com.realworld.springmongo.lib.OffsetBasedPageable;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.lang.Nullable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Collection;
+import java.util.Comparator;
 
 public interface ArticleRepository extends ReactiveMongoRepository<Article, String>, ArticleManualRepository {
-    Sort NEWEST_ARTICLE_SORT = Sort.by(Article.CREATED_AT_FIELD_NAME).descending();
+    Sort NEWEST_ARTICLE_SORT = Sort.by(Article.CREATED_AT_FIELD_NAME, Article.ID_FIELD_NAME).descending();
+    Comparator<ArticleSummary> NEWEST_ARTICLE_ORDER = Comparator.comparing(ArticleSummary::getCreatedAt)
+            .thenComparing(ArticleSummary::getId)
+            .reversed();
 
-    Flux<Article> findMostRecentByAuthorIdIn(Collection<String> authorId, Pageable pageable);
+    /**
+     * Returns summaries projected to their fields, so comments are not read.
+     */
+    Flux<ArticleSummary> findMostRecentByAuthorIdIn(Collection<String> authorId, Pageable pageable);
 
     Mono<Article> findBySlug(String slug);
 
-    Mono<Article> deleteArticleBySlug(String slug);
+    Mono<Long> countByTags(String tag);
 
-    default Flux<Article> findNewestArticlesByAuthorIds(Collection<String> authorId, int offset, int limit) {
+    default Flux<ArticleSummary> findNewestArticlesByAuthorIds(Collection<String> authorId, int offset, int limit) {
         return findMostRecentByAuthorIdIn(authorId, OffsetBasedPageable.of(limit, offset, NEWEST_ARTICLE_SORT));
     }
 
+    default Flux<ArticleSummary> findNewestArticlesByAuthorIds(Collection<String> authorId, @Nullable ArticleCursor cursor, int offset, int limit) {
+        if (cursor == null) {
+            return findNewestArticlesByAuthorIds(authorId, offset, limit);
+        }
+        return findNewestArticlesByAuthorIdsAfter(authorId, cursor, limit);
+    }
+
     default Mono<Article> findBySlugOrFail(String slug) {
         return findBySlug(slug)
                 .switchIfEmpty(Mono.error(new InvalidRequestException("Article", "not found")));
     }
+
+    default Mono<String> findArticleIdBySlugOrFail(String slug) {
+        return findArticleIdBySlug(slug)
+                .switchIfEmpty(Mono.error(new InvalidRequestException("Article", "not found")));
+    }
 }
@@ -0,0 +1,35 @@
+package com.realworld.springmongo.article.repository;
+
+import com.realworld.springmongo.article.Comment;
+import com.realworld.springmongo.lib.OffsetBasedPageable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface CommentRepository extends ReactiveMongoRepository<Comment, String> {
+    Sort OLDEST_COMMENT_SORT = Sort.by(Comment.CREATED_AT_FIELD_NAME, Comment.ID_FIELD_NAME);
+
+    Flux<Comment> findByArticleId(String articleId, Pageable pageable);
+
+    /**
+     * Returns count of deleted comments, 0 when the comment doesn't exist or has another author.
+     */
+    Mono<Long> deleteByIdAndArticleIdAndAuthorId(String id, String articleId, String authorId);
+
+    Mono<Boolean> existsByIdAndArticleId(String id, String articleId);
+
+    Mono<Long> deleteByArticleId(String articleId);
+
+    default Flux<Comment> findOldestArticleComments(String articleId, int offset, int limit) {
+        return findByArticleId(articleId, OffsetBasedPageable.of(limit, offset, OLDEST_COMMENT_SORT));
+    }
+
+    /**
+     * Returns all comments of the article starting from the offset.
+     */
+    default Flux<Comment> findOldestArticleComments(String articleId, int offset) {
+        return findOldestArticleComments(articleId, offset, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,148 @@
+package com.realworld.springmongo.article.repository;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.realworld.springmongo.article.Tag;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public interface TagManualRepository {
+    /**
+     * Adds delta to articlesCount of every tag with one unordered bulk of $inc updates.
+     * Missing tags are inserted when delta is positive and ignored otherwise.
+     */
+    Mono<Void> incrementArticlesCounts(Collection<String> tagNames, int delta);
+
+    /**
+     * Deletes tags that are not used by any article anymore and returns how many were deleted.
+     */
+    Mono<Long> deleteUnusedTags();
+
+    /**
+     * Returns names of tags that {@link #deleteUnusedTags()} would delete.
+     */
+    Flux<String> findUnusedTagNames();
+
+    /**
+     * Sets articlesCount only if the tag is still counted as unused, so increments made in the meantime are kept.
+     */
+    Mono<Void> setUnusedTagArticlesCount(String tagName, long articlesCount);
+
+    /**
+     * Returns names of tags saved before articlesCount was stored.
+     * Tags inserted by {@link #incrementArticlesCounts(Collection, int)} always have it.
+     */
+    Flux<String> findTagNamesWithoutArticlesCount();
+
+    /**
+     * Sets articlesCount only if the tag still has none, so counts changed in the meantime are kept.
+     */
+    Mono<Void> setMissingArticlesCount(String tagName, long articlesCount);
+}
+
+@RequiredArgsConstructor
+class TagManualRepositoryImpl implements TagManualRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> incrementArticlesCounts(Collection<String> tagNames, int delta) {
+        if (tagNames.isEmpty() || delta == 0) {
+            return Mono.empty();
+        }
+        var options = new UpdateOptions().upsert(delta > 0);
+        List<UpdateOneModel<Document>> updates = tagNames.stream()
+                .distinct()
+                .map(tagName -> new UpdateOneModel<Document>(tagFilter(tagName, delta),
+                        Updates.inc(Tag.ARTICLES_COUNT_FIELD_NAME, delta), options))
+                .collect(Collectors.toList());
+        return bulkWrite(updates)
+                .onErrorResume(MongoBulkWriteException.class, e -> isOnlyDuplicateKeys(e) ? bulkWrite(failedWrites(e, updates)) : Mono.error(e));
+    }
+
+    @Override
+    public Mono<Long> deleteUnusedTags() {
+        return mongoTemplate.remove(new Query(where(Tag.ARTICLES_COUNT_FIELD_NAME).lte(0)), Tag.class)
+                .map(DeleteResult::getDeletedCount);
+    }
+
+    @Override
+    public Flux<String> findUnusedTagNames() {
+        return findTagNames(new Query(where(Tag.ARTICLES_COUNT_FIELD_NAME).lte(0)));
+    }
+
+    @Override
+    public Mono<Void> setUnusedTagArticlesCount(String tagName, long articlesCount) {
+        var query = new Query(where(Tag.TAG_NAME_FIELD_NAME).is(tagName)
+                .and(Tag.ARTICLES_COUNT_FIELD_NAME).lte(0));
+        return mongoTemplate.updateFirst(query, new Update().set(Tag.ARTICLES_COUNT_FIELD_NAME, articlesCount), Tag.class)
+                .then();
+    }
+
+    @Override
+    public Flux<String> findTagNamesWithoutArticlesCount() {
+        return findTagNames(new Query(where(Tag.ARTICLES_COUNT_FIELD_NAME).exists(false)));
+    }
+
+    @Override
+    public Mono<Void> setMissingArticlesCount(String tagName, long articlesCount) {
+        var query = new Query(where(Tag.TAG_NAME_FIELD_NAME).is(tagName)
+                .and(Tag.ARTICLES_COUNT_FIELD_NAME).exists(false));
+        return mongoTemplate.updateFirst(query, new Update().set(Tag.ARTICLES_COUNT_FIELD_NAME, articlesCount), Tag.class)
+                .then();
+    }
+
+    private Flux<String> findTagNames(Query query) {
+        query.fields().include(Tag.TAG_NAME_FIELD_NAME);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Tag.class))
+                .map(document -> document.getString(Tag.TAG_NAME_FIELD_NAME));
+    }
+
+    /**
+     * Tags without stored count are not decremented, their count is set from articles left after the delete.
+     */
+    private Bson tagFilter(String tagName, int delta) {
+        var filter = Filters.eq(Tag.TAG_NAME_FIELD_NAME, tagName);
+        return delta > 0 ? filter : Filters.and(filter, Filters.exists(Tag.ARTICLES_COUNT_FIELD_NAME));
+    }
+
+    private Mono<Void> bulkWrite(List<? extends WriteModel<Document>> writes) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Tag.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(writes, new BulkWriteOptions().ordered(false))))
+                .then();
+    }
+
+    /**
+     * Two concurrent upserts of a new tag can both try to insert it, the loser fails on the unique tagName index.
+     * Repeating its update then increments the tag inserted by the winner.
+     */
+    private boolean isOnlyDuplicateKeys(MongoBulkWriteException e) {
+        return e.getWriteConcernError() == null && e.getWriteErrors().stream()
+                .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+    }
+
+    private List<UpdateOneModel<Document>> failedWrites(MongoBulkWriteException e, List<UpdateOneModel<Document>> writes) {
+        return e.getWriteErrors().stream()
+                .map(error -> writes.get(error.getIndex()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,42 @@
+package com.realworld.springmongo.article.repository;
+
+import com.realworld.springmongo.article.Timeline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public interface TimelineManualRepository {
+    /**
+     * Pushes entry to existing timelines of the owners keeping them newest-first and not longer than maxLength.
+     * Missing timelines are not created, they are built from articles on the next read.
+     * Timelines already holding the article are skipped, so pushing the same entry twice is harmless.
+     */
+    Mono<Void> pushEntry(Collection<String> ownerIds, Timeline.Entry entry, int maxLength);
+}
+
+@RequiredArgsConstructor
+class TimelineManualRepositoryImpl implements TimelineManualRepository {
+
+    private static final Sort NEWEST_ENTRY_SORT = Sort.by(Timeline.ENTRY_CREATED_AT_FIELD_NAME, Timeline.ENTRY_ARTICLE_ID_FIELD_NAME).descending();
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> pushEntry(Collection<String> ownerIds, Timeline.Entry entry, int maxLength) {
+        var update = new Update()
+                .push(Timeline.ENTRIES_FIELD_NAME)
+                .sort(NEWEST_ENTRY_SORT)
+                .slice(maxLength)
+                .each(entry);
+        var withoutEntry = where(Timeline.OWNER_ID_FIELD_NAME).in(ownerIds)
+                .and(Timeline.ENTRIES_FIELD_NAME + "." + Timeline.ENTRY_ARTICLE_ID_FIELD_NAME).ne(entry.getArticleId());
+        return mongoTemplate.updateMulti(query(withoutEntry), update, Timeline.class).then();
+    }
+}
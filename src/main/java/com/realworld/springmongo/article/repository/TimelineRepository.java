@@ -0,0 +1,7 @@
+package com.realworld.springmongo.article.repository;
+
+import com.realworld.springmongo.article.Timeline;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface TimelineRepository extends ReactiveMongoRepository<Timeline, String>, TimelineManualRepository {
+}
@@ -0,0 +1,12 @@
+package com.realworld.springmongo.change;
+
+import com.mongodb.client.model.changestream.OperationType;
+import com.realworld.springmongo.article.Article;
+import org.springframework.lang.Nullable;
+
+public class ArticleChangedEvent extends DocumentChangedEvent<Article> {
+
+    public ArticleChangedEvent(OperationType operation, String documentId, @Nullable Article document) {
+        super(operation, documentId, document);
+    }
+}
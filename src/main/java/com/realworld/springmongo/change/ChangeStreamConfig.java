@@ -0,0 +1,9 @@
+package com.realworld.springmongo.change;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ChangeStreamProperties.class)
+public class ChangeStreamConfig {
+}
@@ -0,0 +1,31 @@
+package com.realworld.springmongo.change;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@Value
+@ConfigurationProperties(prefix = "change-stream")
+@ConstructorBinding
+public class ChangeStreamProperties {
+    /**
+     * Change streams need a replica set, so they are off for a standalone MongoDB.
+     */
+    boolean enabled;
+    /**
+     * Name under which the resume token is saved, has to be stable across restarts and unique per instance.
+     */
+    String consumerName;
+    Duration tokenSaveInterval;
+
+    public ChangeStreamProperties(@DefaultValue("false") boolean enabled,
+                                  @DefaultValue("local") String consumerName,
+                                  @DefaultValue("5s") Duration tokenSaveInterval) {
+        this.enabled = enabled;
+        this.consumerName = consumerName;
+        this.tokenSaveInterval = tokenSaveInterval;
+    }
+}
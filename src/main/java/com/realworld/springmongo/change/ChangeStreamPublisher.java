@@ -0,0 +1,195 @@
+package com.realworld.springmongo.change;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.Tag;
+import com.realworld.springmongo.user.User;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Watches writes to articles, users and tags with one change stream and publishes them as typed
+ * {@link DocumentChangedEvent}s, so local caches of every instance see writes of the others.
+ * The resume token of the last published change is saved every token save interval and on shutdown,
+ * a restart resumes after it and publishes changes made while the instance was down. Changes since the last save
+ * may be published twice. When the saved token is too old to resume from, {@link ChangesMissedEvent} is published.
+ */
+@Slf4j
+@Component
+class ChangeStreamPublisher implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    /**
+     * ChangeStreamHistoryLost and ChangeStreamFatalError, the stream can't be resumed from the token.
+     */
+    private static final Set<Integer> NOT_RESUMABLE_ERROR_CODES = Set.of(280, 286);
+    private static final Duration SHUTDOWN_SAVE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ResumeTokenStore resumeTokenStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeStreamProperties properties;
+    private final String articleCollectionName;
+    private final String userCollectionName;
+    private final String tagCollectionName;
+
+    @Nullable
+    private volatile BsonValue lastToken;
+    @Nullable
+    private Disposable subscription;
+
+    ChangeStreamPublisher(ReactiveMongoTemplate mongoTemplate,
+                          ResumeTokenStore resumeTokenStore,
+                          ApplicationEventPublisher eventPublisher,
+                          ChangeStreamProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.resumeTokenStore = resumeTokenStore;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.articleCollectionName = mongoTemplate.getCollectionName(Article.class);
+        this.userCollectionName = mongoTemplate.getCollectionName(User.class);
+        this.tagCollectionName = mongoTemplate.getCollectionName(Tag.class);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (properties.isEnabled()) {
+            start();
+        }
+    }
+
+    /**
+     * After a failure the stream is opened again from the last published change.
+     */
+    public void start() {
+        var startedAt = Instant.now();
+        subscription = Flux.defer(() -> Mono.justOrEmpty(lastToken)
+                        .switchIfEmpty(resumeTokenStore.find(properties.getConsumerName()))
+                        .doOnNext(token -> lastToken = token)
+                        .thenMany(Flux.defer(() -> watch(startedAt))))
+                .doOnNext(this::publish)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .doBeforeRetry(signal -> log.warn("Change stream failed, resuming", signal.failure())))
+                .flatMap(change -> Mono.justOrEmpty(change.getResumeToken()))
+                .sample(properties.getTokenSaveInterval())
+                .concatMap(token -> resumeTokenStore.save(properties.getConsumerName(), token)
+                        .onErrorResume(error -> {
+                            log.warn("Failed to save change stream resume token, saving the next one", error);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription == null) {
+            return;
+        }
+        subscription.dispose();
+        var token = lastToken;
+        if (token != null) {
+            resumeTokenStore.save(properties.getConsumerName(), token).block(SHUTDOWN_SAVE_TIMEOUT);
+        }
+    }
+
+    /**
+     * Resumes after the last published change, or starts at startedAt when nothing was published yet,
+     * so changes made while the stream is being opened are not missed.
+     */
+    private Flux<ChangeStreamEvent<Document>> watch(Instant startedAt) {
+        var token = lastToken;
+        var options = ChangeStreamOptions.builder()
+                .filter(new Document("$match", new Document("ns.coll", new Document("$in", List.of(articleCollectionName, userCollectionName, tagCollectionName)))))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        if (token != null) {
+            options.resumeAfter(token);
+        } else {
+            options.resumeAt(startedAt);
+        }
+        return mongoTemplate.changeStream(null, null, options.build(), Document.class)
+                .onErrorResume(error -> token != null && isNotResumable(error), error -> {
+                    log.warn("Changes after the saved resume token are no longer available, resetting local caches", error);
+                    lastToken = null;
+                    eventPublisher.publishEvent(new ChangesMissedEvent());
+                    return resumeTokenStore.delete(properties.getConsumerName())
+                            .thenMany(Flux.defer(() -> watch(Instant.now())));
+                });
+    }
+
+    /**
+     * The token is taken before the listeners run, so a change whose listener fails is not published again
+     * and can't stop the stream.
+     */
+    private void publish(ChangeStreamEvent<Document> change) {
+        lastToken = change.getResumeToken();
+        var raw = change.getRaw();
+        if (raw != null && raw.getDocumentKey() != null) {
+            var event = toEvent(change.getCollectionName(), raw);
+            if (event != null) {
+                eventPublisher.publishEvent(event);
+            }
+        }
+    }
+
+    @Nullable
+    private DocumentChangedEvent<?> toEvent(@Nullable String collectionName, ChangeStreamDocument<Document> raw) {
+        var operation = raw.getOperationType();
+        var documentId = idOf(raw.getDocumentKey().get("_id"));
+        var document = raw.getFullDocument();
+        if (articleCollectionName.equals(collectionName)) {
+            return new ArticleChangedEvent(operation, documentId, read(Article.class, document));
+        }
+        if (userCollectionName.equals(collectionName)) {
+            return new UserChangedEvent(operation, documentId, read(User.class, document));
+        }
+        if (tagCollectionName.equals(collectionName)) {
+            return new TagChangedEvent(operation, documentId, read(Tag.class, document));
+        }
+        return null;
+    }
+
+    @Nullable
+    private <T> T read(Class<T> type, @Nullable Document document) {
+        return document == null ? null : mongoTemplate.getConverter().read(type, document);
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id.isString()) {
+            return id.asString().getValue();
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.toString();
+    }
+
+    private static boolean isNotResumable(Throwable error) {
+        for (var cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException && NOT_RESUMABLE_ERROR_CODES.contains(((MongoException) cause).getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,8 @@
+package com.realworld.springmongo.change;
+
+/**
+ * Published when the change stream could not resume from the saved token because the oplog no longer has
+ * the changes after it. Local caches have to drop or reload everything they hold.
+ */
+public class ChangesMissedEvent {
+}
@@ -0,0 +1,34 @@
+package com.realworld.springmongo.change;
+
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.lang.Nullable;
+
+/**
+ * A write to a document seen on the change stream, made by any instance including this one,
+ * so handling it has to be idempotent. Local caches receive it with {@code @EventListener} on the concrete type.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public abstract class DocumentChangedEvent<T> {
+
+    private final OperationType operation;
+    private final String documentId;
+
+    /**
+     * Document after the write, present for inserts, replaces and updates of documents that still exist.
+     */
+    @Nullable
+    private final T document;
+
+    public boolean isInsert() {
+        return operation == OperationType.INSERT;
+    }
+
+    public boolean isDelete() {
+        return operation == OperationType.DELETE;
+    }
+}
@@ -0,0 +1,53 @@
+package com.realworld.springmongo.change;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Saves the last handled resume token of every consumer. Tokens are written with the driver,
+ * so they are stored as the server returned them.
+ */
+@Component
+@RequiredArgsConstructor
+class ResumeTokenStore {
+
+    static final String COLLECTION_NAME = "changeStreamResumeToken";
+    private static final String TOKEN_FIELD_NAME = "token";
+    private static final String SAVED_AT_FIELD_NAME = "savedAt";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public Mono<BsonValue> find(String consumerName) {
+        return mongoTemplate.getCollection(COLLECTION_NAME)
+                .flatMap(collection -> Mono.from(collection.withDocumentClass(BsonDocument.class)
+                        .find(Filters.eq("_id", consumerName))
+                        .first()))
+                .filter(document -> document.containsKey(TOKEN_FIELD_NAME))
+                .map(document -> document.get(TOKEN_FIELD_NAME));
+    }
+
+    public Mono<Void> save(String consumerName, BsonValue token) {
+        var document = new Document("_id", consumerName)
+                .append(TOKEN_FIELD_NAME, token)
+                .append(SAVED_AT_FIELD_NAME, Date.from(Instant.now()));
+        return mongoTemplate.getCollection(COLLECTION_NAME)
+                .flatMap(collection -> Mono.from(collection.replaceOne(Filters.eq("_id", consumerName), document, new ReplaceOptions().upsert(true))))
+                .then();
+    }
+
+    public Mono<Void> delete(String consumerName) {
+        return mongoTemplate.getCollection(COLLECTION_NAME)
+                .flatMap(collection -> Mono.from(collection.deleteOne(Filters.eq("_id", consumerName))))
+                .then();
+    }
+}
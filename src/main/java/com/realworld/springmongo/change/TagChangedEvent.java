@@ -0,0 +1,12 @@
+package com.realworld.springmongo.change;
+
+import com.mongodb.client.model.changestream.OperationType;
+import com.realworld.springmongo.article.Tag;
+import org.springframework.lang.Nullable;
+
+public class TagChangedEvent extends DocumentChangedEvent<Tag> {
+
+    public TagChangedEvent(OperationType operation, String documentId, @Nullable Tag document) {
+        super(operation, documentId, document);
+    }
+}
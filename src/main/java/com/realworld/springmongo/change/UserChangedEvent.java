@@ -0,0 +1,12 @@
+package com.realworld.springmongo.change;
+
+import com.mongodb.client.model.changestream.OperationType;
+import com.realworld.springmongo.user.User;
+import org.springframework.lang.Nullable;
+
+public class UserChangedEvent extends DocumentChangedEvent<User> {
+
+    public UserChangedEvent(OperationType operation, String documentId, @Nullable User document) {
+        super(operation, documentId, document);
+    }
+}
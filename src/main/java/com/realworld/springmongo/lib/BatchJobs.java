@@ -0,0 +1,63 @@
+package com.realworld.springmongo.lib;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.lang.Nullable;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Building blocks of background jobs that walk a collection in batches.
+ */
+@Slf4j
+public final class BatchJobs {
+
+    private static final String ID_FIELD_NAME = "_id";
+
+    private BatchJobs() {
+    }
+
+    /**
+     * Runs the job after the initial delay and then every interval until the returned disposable is disposed.
+     * Runs never overlap, ticks coming while the job is running are dropped. A failed run is only logged.
+     */
+    public static Disposable schedule(String jobName, Duration initialDelay, Duration interval, Supplier<Mono<?>> job) {
+        return Flux.interval(initialDelay, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> job.get()
+                        .onErrorResume(error -> {
+                            log.warn("Failed to {}, retrying on the next run", jobName, error);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Emits batches of documents ordered by _id until an empty one is found. Every batch is read with the _id of
+     * the last document of the previous one, null for the first batch, and only when the previous one is processed.
+     */
+    public static Flux<List<Document>> walkById(Function<String, Mono<List<Document>>> findBatchAfter) {
+        var lastId = new AtomicReference<String>();
+        return Mono.defer(() -> findBatchAfter.apply(lastId.get()))
+                .doOnNext(batch -> {
+                    if (!batch.isEmpty()) {
+                        lastId.set(batch.get(batch.size() - 1).getString(ID_FIELD_NAME));
+                    }
+                })
+                .repeat()
+                .takeWhile(batch -> !batch.isEmpty());
+    }
+
+    public static void dispose(@Nullable Disposable job) {
+        if (job != null) {
+            job.dispose();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.realworld.springmongo.user;
 
 import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.ArticleSummary;
 import lombok.*;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.lang.Nullable;
 
@@ -16,16 +18,27 @@ import static java.util.Optional.ofNullable;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class User {
 
+    public static final String ID_FIELD_NAME = "id";
+    public static final String FAVORITE_ARTICLE_IDS_FIELD_NAME = "favoriteArticleIds";
+    public static final String FOLLOWING_IDS_FIELD_NAME = "followingIds";
+    public static final String USERNAME_FIELD_NAME = "username";
+    public static final String ENCODED_PASSWORD_FIELD_NAME = "encodedPassword";
+    public static final String EMAIL_FIELD_NAME = "email";
+    public static final String BIO_FIELD_NAME = "bio";
+    public static final String IMAGE_FIELD_NAME = "image";
+
     @Getter
     @EqualsAndHashCode.Include
     private final String id;
 
+    @Indexed
     private final List<String> followingIds;
 
     private final List<String> favoriteArticleIds;
 
     @Getter
     @Setter
+    @Indexed(unique = true)
     private String username;
 
     @Getter
@@ -34,6 +47,7 @@ public class User {
 
     @Getter
     @Setter
+    @Indexed(unique = true)
     private String email;
 
     @Getter
@@ -74,10 +88,18 @@ public class User {
         return Collections.unmodifiableList(favoriteArticleIds);
     }
 
+    /**
+     * Only updates this instance, followings are persisted with {@link UserManualRepository#addFollowingId(String, String)}.
+     */
     public void follow(String userId) {
-        followingIds.add(userId);
+        if (!followingIds.contains(userId)) {
+            followingIds.add(userId);
+        }
     }
 
+    /**
+     * Only updates this instance, followings are persisted with {@link UserManualRepository#removeFollowingId(String, String)}.
+     */
     public void unfollow(String userId) {
         followingIds.remove(userId);
     }
@@ -90,13 +112,19 @@ public class User {
         unfollow(user.getId());
     }
 
+    /**
+     * Only updates this instance, favorites are persisted with {@link UserManualRepository#addFavoriteArticleId(String, String)}.
+     */
     public void favorite(Article article) {
-        article.incrementFavoritesCount();
-        favoriteArticleIds.add(article.getId());
+        if (!isFavoriteArticle(article)) {
+            favoriteArticleIds.add(article.getId());
+        }
     }
 
+    /**
+     * Only updates this instance, favorites are persisted with {@link UserManualRepository#removeFavoriteArticleId(String, String)}.
+     */
     public void unfavorite(Article article) {
-        article.decrementFavoritesCount();
         favoriteArticleIds.remove(article.getId());
     }
 
@@ -104,6 +132,10 @@ public class User {
         return favoriteArticleIds.contains(article.getId());
     }
 
+    public boolean isFavoriteArticle(ArticleSummary article) {
+        return favoriteArticleIds.contains(article.getId());
+    }
+
     public boolean isFollowing(User user) {
         return followingIds.contains(user.getId());
     }
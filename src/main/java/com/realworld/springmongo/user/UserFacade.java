@@ -36,7 +36,7 @@ public class UserFacade {
         var user = userSession.getUser();
         var token = userSession.getToken();
         return userUpdater.updateUser(request, user)
-                .flatMap(userRepository::save)
+                .flatMap(it -> userRepository.updateProfile(it).thenReturn(it))
                 .map(it -> UserView.fromUserAndToken(it, token));
     }
 
@@ -44,7 +44,7 @@ public class UserFacade {
         return userRepository.findByUsernameOrFail(username)
                 .flatMap(userToFollow -> {
                     follower.follow(userToFollow);
-                    return userRepository.save(follower).thenReturn(userToFollow);
+                    return userRepository.addFollowingId(follower.getId(), userToFollow.getId()).thenReturn(userToFollow);
                 })
                 .map(ProfileView::toFollowedProfileView);
     }
@@ -53,7 +53,7 @@ public class UserFacade {
         return userRepository.findByUsernameOrFail(username)
                 .flatMap(userToUnfollow -> {
                     follower.unfollow(userToUnfollow);
-                    return userRepository.save(follower).thenReturn(userToUnfollow);
+                    return userRepository.removeFollowingId(follower.getId(), userToUnfollow.getId()).thenReturn(userToUnfollow);
                 })
                 .map(ProfileView::toUnfollowedProfileView);
     }
@@ -0,0 +1,113 @@
+package com.realworld.springmongo.user;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public interface UserManualRepository {
+    /**
+     * Adds article to favorites of the user with a single update.
+     * Returns true only when the article wasn't a favorite before, so retries and concurrent calls report the change once.
+     */
+    Mono<Boolean> addFavoriteArticleId(String userId, String articleId);
+
+    /**
+     * Removes article from favorites of the user with a single update, returns true only when it was a favorite.
+     */
+    Mono<Boolean> removeFavoriteArticleId(String userId, String articleId);
+
+    /**
+     * Adds followed user to followings of the user with a single $addToSet, favorites written at the same time are kept.
+     */
+    Mono<Void> addFollowingId(String userId, String followedId);
+
+    Mono<Void> removeFollowingId(String userId, String followedId);
+
+    /**
+     * Writes username, password, email, bio and image of the user with a single $set.
+     * Followings and favorites are left as they are in the database.
+     */
+    Mono<Void> updateProfile(User user);
+
+    /**
+     * Removes the given article ids from favorites of every user in the map with one unordered bulk write.
+     * Returns the number of changed users.
+     */
+    Mono<Integer> pullFavoriteArticleIds(Map<String, ? extends Collection<String>> articleIdsByUserId);
+}
+
+@RequiredArgsConstructor
+class UserManualRepositoryImpl implements UserManualRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Boolean> addFavoriteArticleId(String userId, String articleId) {
+        var notFavorite = new Query(where(User.ID_FIELD_NAME).is(userId)
+                .and(User.FAVORITE_ARTICLE_IDS_FIELD_NAME).ne(articleId));
+        var update = new Update().addToSet(User.FAVORITE_ARTICLE_IDS_FIELD_NAME, articleId);
+        return mongoTemplate.updateFirst(notFavorite, update, User.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+
+    @Override
+    public Mono<Boolean> removeFavoriteArticleId(String userId, String articleId) {
+        var favorite = new Query(where(User.ID_FIELD_NAME).is(userId)
+                .and(User.FAVORITE_ARTICLE_IDS_FIELD_NAME).is(articleId));
+        var update = new Update().pull(User.FAVORITE_ARTICLE_IDS_FIELD_NAME, articleId);
+        return mongoTemplate.updateFirst(favorite, update, User.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+
+    @Override
+    public Mono<Void> addFollowingId(String userId, String followedId) {
+        var update = new Update().addToSet(User.FOLLOWING_IDS_FIELD_NAME, followedId);
+        return mongoTemplate.updateFirst(new Query(where(User.ID_FIELD_NAME).is(userId)), update, User.class).then();
+    }
+
+    @Override
+    public Mono<Void> removeFollowingId(String userId, String followedId) {
+        var update = new Update().pull(User.FOLLOWING_IDS_FIELD_NAME, followedId);
+        return mongoTemplate.updateFirst(new Query(where(User.ID_FIELD_NAME).is(userId)), update, User.class).then();
+    }
+
+    @Override
+    public Mono<Void> updateProfile(User user) {
+        var update = new Update()
+                .set(User.USERNAME_FIELD_NAME, user.getUsername())
+                .set(User.ENCODED_PASSWORD_FIELD_NAME, user.getEncodedPassword())
+                .set(User.EMAIL_FIELD_NAME, user.getEmail())
+                .set(User.BIO_FIELD_NAME, user.getBio())
+                .set(User.IMAGE_FIELD_NAME, user.getImage());
+        return mongoTemplate.updateFirst(new Query(where(User.ID_FIELD_NAME).is(user.getId())), update, User.class).then();
+    }
+
+    @Override
+    public Mono<Integer> pullFavoriteArticleIds(Map<String, ? extends Collection<String>> articleIdsByUserId) {
+        if (articleIdsByUserId.isEmpty()) {
+            return Mono.just(0);
+        }
+        List<UpdateOneModel<Document>> updates = articleIdsByUserId.entrySet().stream()
+                .map(user -> new UpdateOneModel<Document>(Filters.eq("_id", user.getKey()),
+                        Updates.pullAll(User.FAVORITE_ARTICLE_IDS_FIELD_NAME, List.copyOf(user.getValue()))))
+                .collect(Collectors.toList());
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false))))
+                .map(BulkWriteResult::getModifiedCount);
+    }
+}
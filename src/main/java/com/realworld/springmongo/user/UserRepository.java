@@ -1,11 +1,17 @@
 package com.realworld.springmongo.user;
 
 import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.ArticleSummary;
 import com.realworld.springmongo.exceptions.InvalidRequestException;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface UserRepository extends ReactiveMongoRepository<User, String> {
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+public interface UserRepository extends ReactiveMongoRepository<User, String>, UserManualRepository {
     Mono<User> findByEmail(String email);
 
     Mono<Boolean> existsByEmail(String email);
@@ -14,10 +20,24 @@ public interface UserRepository extends ReactiveMongoRepository<User, String> {
 
     Mono<User> findByUsername(String username);
 
+    @Query(value = "{ 'followingIds': ?0 }", fields = "{ '_id': 1 }")
+    Flux<User> findFollowersOf(String userId);
+
+    default Flux<String> findFollowerIds(String userId) {
+        return findFollowersOf(userId).map(User::getId);
+    }
+
     default Mono<User> findAuthorByArticle(Article article) {
         return findById(article.getAuthorId());
     }
 
+    default Flux<User> findAuthorsByArticles(Collection<ArticleSummary> articles) {
+        var authorIds = articles.stream()
+                .map(ArticleSummary::getAuthorId)
+                .collect(Collectors.toSet());
+        return findAllById(authorIds);
+    }
+
     default Mono<User> findByUsernameOrFail(String username) {
         return findByUsername(username)
                 .switchIfEmpty(Mono.error(new InvalidRequestException("Username", "not found")));
@@ -0,0 +1,254 @@
+package com.realworld.springmongo;
+
+import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.ArticleCursor;
+import com.realworld.springmongo.article.ArticleSummary;
+import com.realworld.springmongo.article.Comment;
+import com.realworld.springmongo.article.Tag;
+import com.realworld.springmongo.article.TagMode;
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.article.repository.CommentRepository;
+import com.realworld.springmongo.article.repository.TagRepository;
+import com.realworld.springmongo.user.User;
+import com.realworld.springmongo.user.UserRepository;
+import helpers.MongoQueryPlans;
+import helpers.article.ArticleSamples;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static helpers.MongoQueryPlans.COLLSCAN;
+import static helpers.MongoQueryPlans.SORT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explains every query the repositories send on a seeded database and fails on collection scans and blocking sorts.
+ */
+@DataMongoTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final int USERS_COUNT = 200;
+    private static final int ARTICLES_COUNT = 5000;
+    private static final int TAGS_COUNT = 100;
+    private static final int COMMENTS_COUNT = 5000;
+    private static final int FOLLOWING_COUNT = 20;
+    private static final int FAVORITES_COUNT = 30;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    MongoQueryPlans queryPlans;
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+    @Autowired
+    ArticleRepository articleRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TagRepository tagRepository;
+    @Autowired
+    CommentRepository commentRepository;
+
+    private final Random random = new Random(42);
+    private List<User> users;
+    private List<Article> articles;
+
+    @TestConfiguration
+    static class QueryPlansConfig {
+        @Bean
+        MongoQueryPlans mongoQueryPlans() {
+            return new MongoQueryPlans();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer queryPlansListener(MongoQueryPlans queryPlans) {
+            return settings -> settings.addCommandListener(queryPlans);
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        ensureDeclaredIndexes(Article.class, Comment.class, User.class, Tag.class);
+        articleRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+        tagRepository.deleteAll().block();
+        commentRepository.deleteAll().block();
+
+        var tags = IntStream.range(0, TAGS_COUNT).mapToObj(i -> "tag-" + i).collect(Collectors.toList());
+        var userIds = IntStream.range(0, USERS_COUNT).mapToObj(i -> "user-" + i).collect(Collectors.toList());
+        var start = Instant.now().minus(ARTICLES_COUNT, ChronoUnit.MINUTES);
+        articles = IntStream.range(0, ARTICLES_COUNT)
+                .mapToObj(i -> ArticleSamples.sampleArticle()
+                        .id("article-" + i)
+                        .title("article title " + i)
+                        .authorId(userIds.get(random.nextInt(USERS_COUNT)))
+                        .tags(randomSample(tags, 3))
+                        .createdAt(start.plus(i, ChronoUnit.MINUTES))
+                        .updatedAt(start.plus(i, ChronoUnit.MINUTES))
+                        .build())
+                .collect(Collectors.toList());
+        var articleIds = articles.stream().map(Article::getId).collect(Collectors.toList());
+        users = IntStream.range(0, USERS_COUNT)
+                .mapToObj(i -> User.builder()
+                        .id(userIds.get(i))
+                        .username("username " + i)
+                        .email("user" + i + "@gmail.com")
+                        .encodedPassword("encoded password")
+                        .followingIds(randomSample(userIds, FOLLOWING_COUNT))
+                        .favoriteArticleIds(randomSample(articleIds, FAVORITES_COUNT))
+                        .build())
+                .collect(Collectors.toList());
+
+        userRepository.saveAll(users).blockLast();
+        articleRepository.saveAll(articles).blockLast();
+        tagRepository.saveAll(tags.stream().map(Tag::of).collect(Collectors.toList())).blockLast();
+        commentRepository.saveAll(IntStream.range(0, COMMENTS_COUNT)
+                .mapToObj(i -> Comment.builder()
+                        .id("comment-" + i)
+                        .articleId(articleIds.get(random.nextInt(ARTICLES_COUNT)))
+                        .authorId(userIds.get(random.nextInt(USERS_COUNT)))
+                        .body("comment " + i)
+                        .build())
+                .collect(Collectors.toList())).blockLast();
+    }
+
+    @Test
+    void articleRepositoryQueriesUseIndexes() {
+        var user = users.get(0);
+        var article = articles.get(ARTICLES_COUNT / 2);
+        var cursor = ArticleCursor.of(article);
+
+        assertIndexedPlans(() -> articleRepository.findBySlug(article.getSlug()).block());
+        assertIndexedPlans(() -> articleRepository.findArticleIdBySlug(article.getSlug()).block());
+        assertIndexedPlans(() -> articleRepository.incrementFavoritesCount("not existing article id", 0).block());
+        assertIndexedPlans(() -> articleRepository.updateArticleFields("not existing slug", user.getId(), 1L, Map.of()).block());
+        assertIndexedPlans(() -> articleRepository.findAndDeleteBySlugAndAuthorId("not existing slug", user.getId()).block());
+        assertIndexedPlans(() -> articleRepository.findExistingArticleIds(List.of("not existing article id")).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesByAuthorIds(user.getFollowingIds(), 40, PAGE_SIZE).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesByAuthorIds(user.getFollowingIds(), cursor, 0, PAGE_SIZE).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesByAuthorIdsMerged(user.getFollowingIds(), null, 40, PAGE_SIZE).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesByAuthorIdsMerged(user.getFollowingIds(), cursor, 0, PAGE_SIZE).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestTimelineEntriesByAuthorIds(user.getFollowingIds(), 500).collectList().block());
+    }
+
+    @Test
+    void articleManualRepositoryQueriesUseIndexes() {
+        var user = users.get(1);
+        var article = articles.get(ARTICLES_COUNT / 2);
+        var tag = article.getTags().get(0);
+        var cursor = ArticleCursor.of(article);
+
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(null, null, null, PAGE_SIZE, 100).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(null, null, null, cursor, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(tag, null, null, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(tag, null, null, cursor, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(null, article.getAuthorId(), null, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(tag, article.getAuthorId(), null, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesWithAuthorsFilteredBy(tag, null, null, null, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(article.getTags(), TagMode.ANY, null, null, null, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(article.getTags(), TagMode.ANY, null, null, cursor, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(article.getTags(), TagMode.ALL, null, null, null, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesWithAuthorsFilteredBy(article.getTags(), TagMode.ANY, null, null, null, PAGE_SIZE, 0).collectList().block());
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesWithAuthorsByAuthorIds(user.getFollowingIds(), cursor, 0, PAGE_SIZE).collectList().block());
+        assertIndexedPlans(() -> articleRepository.countArticlesFilteredBy(article.getTags(), TagMode.ANY, null, null).block());
+        assertIndexedPlans(() -> articleRepository.countArticlesFilteredBy(List.of(tag), TagMode.ALL, article.getAuthorId(), user).block());
+        // text matches are ordered by score, so the sort input is bounded by the number of matching articles
+        assertIndexedPlans(() -> articleRepository.searchArticles(tag, 0, PAGE_SIZE).collectList().block(), Set.of(SORT));
+        assertIndexedPlans(() -> articleRepository.countSearchedArticles(tag).block());
+        // favorites are looked up by _id $in, so the sort input is bounded by the size of the user's favorites
+        assertIndexedPlans(() -> articleRepository.findNewestArticlesFilteredBy(null, null, user, PAGE_SIZE, 0).collectList().block(), Set.of(SORT));
+    }
+
+    @Test
+    void userRepositoryQueriesUseIndexes() {
+        var user = users.get(2);
+
+        assertIndexedPlans(() -> userRepository.findByEmail(user.getEmail()).block());
+        assertIndexedPlans(() -> userRepository.existsByEmail(user.getEmail()).block());
+        assertIndexedPlans(() -> userRepository.findByUsername(user.getUsername()).block());
+        assertIndexedPlans(() -> userRepository.existsByUsername(user.getUsername()).block());
+        assertIndexedPlans(() -> userRepository.findAuthorsByArticles(summaries(articles.subList(0, PAGE_SIZE))).collectList().block());
+        assertIndexedPlans(() -> userRepository.findFollowerIds(user.getId()).collectList().block());
+        assertIndexedPlans(() -> userRepository.addFavoriteArticleId("not existing user id", "article-1").block());
+    }
+
+    @Test
+    void commentRepositoryQueriesUseIndexes() {
+        var article = articles.get(3);
+        var user = users.get(3);
+
+        assertIndexedPlans(() -> commentRepository.findOldestArticleComments(article.getId(), 0, PAGE_SIZE).collectList().block());
+        assertIndexedPlans(() -> commentRepository.deleteByIdAndArticleIdAndAuthorId("not existing id", article.getId(), user.getId()).block());
+        assertIndexedPlans(() -> commentRepository.existsByIdAndArticleId("not existing id", article.getId()).block());
+        assertIndexedPlans(() -> commentRepository.deleteByArticleId("not existing article id").block());
+    }
+
+    @Test
+    void tagRepositoryQueriesUseIndexes() {
+        // listing of all tags has no filter, so a collection scan is the cheapest plan
+        assertIndexedPlans(() -> tagRepository.findAll().collectList().block(), Set.of(COLLSCAN));
+        assertIndexedPlans(() -> tagRepository.incrementArticlesCounts(List.of(articles.get(0).getTags().get(0)), 1).block());
+        assertIndexedPlans(() -> tagRepository.findUnusedTagNames().collectList().block());
+        assertIndexedPlans(() -> tagRepository.setUnusedTagArticlesCount("not existing tag", 1).block());
+        assertIndexedPlans(() -> tagRepository.deleteUnusedTags().block());
+        assertIndexedPlans(() -> tagRepository.findTagNamesWithoutArticlesCount().collectList().block());
+        assertIndexedPlans(() -> articleRepository.countByTags(articles.get(0).getTags().get(0)).block());
+    }
+
+    private void assertIndexedPlans(Runnable repositoryCall) {
+        assertIndexedPlans(repositoryCall, Set.of());
+    }
+
+    private void assertIndexedPlans(Runnable repositoryCall, Set<String> allowedStages) {
+        queryPlans.clear();
+        repositoryCall.run();
+        var commands = queryPlans.takeRecordedCommands();
+
+        assertThat(commands).isNotEmpty();
+        for (var command : commands) {
+            var plan = queryPlans.explain(mongoTemplate, command);
+            var forbiddenStages = new ArrayList<>(List.of(COLLSCAN, SORT));
+            forbiddenStages.removeAll(allowedStages);
+            assertThat(plan.getWinningPlanStages())
+                    .as("Winning plan of %s, docsExamined/nReturned %.2f", command.toJson(), plan.getDocsExaminedToReturnedRatio())
+                    .doesNotContainAnyElementsOf(forbiddenStages);
+        }
+    }
+
+    private void ensureDeclaredIndexes(Class<?>... documents) {
+        var indexResolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (var document : documents) {
+            indexResolver.resolveIndexFor(document)
+                    .forEach(index -> mongoTemplate.indexOps(document).ensureIndex(index).block());
+        }
+    }
+
+    private List<ArticleSummary> summaries(List<Article> articles) {
+        return articles.stream().map(ArticleSummary::of).collect(Collectors.toList());
+    }
+
+    private <T> List<T> randomSample(List<T> source, int size) {
+        return random.ints(0, source.size())
+                .distinct()
+                .limit(size)
+                .mapToObj(source::get)
+                .collect(Collectors.toList());
+    }
+}
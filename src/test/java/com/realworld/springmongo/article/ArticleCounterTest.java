@@ -0,0 +1,79 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import helpers.user.UserSamples;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ArticleCounterTest {
+
+    ArticleRepository articleRepository = Mockito.mock(ArticleRepository.class);
+
+    @Test
+    void shouldReuseCountOfSameFilter() {
+        var articleCounter = articleCounter(Duration.ofHours(1));
+        when(articleRepository.countArticlesFilteredBy(any(), any(), any(), any())).thenReturn(Mono.just(5L));
+
+        var first = articleCounter.count(new FindArticlesRequest().setTags(List.of("java", "reactive"))).block();
+        var second = articleCounter.count(new FindArticlesRequest().setTags(List.of("reactive", "java")).setLimit(1)).block();
+
+        assertThat(first).isEqualTo(5L);
+        assertThat(second).isEqualTo(5L);
+        verify(articleRepository, times(1)).countArticlesFilteredBy(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldCountAgainAfterInvalidation() {
+        var articleCounter = articleCounter(Duration.ofHours(1));
+        when(articleRepository.countArticlesFilteredBy(any(), any(), any(), any()))
+                .thenReturn(Mono.just(5L))
+                .thenReturn(Mono.just(6L));
+        var request = new FindArticlesRequest().setAuthorId("author");
+        articleCounter.count(request).block();
+
+        articleCounter.invalidateAll();
+        var actual = articleCounter.count(request).block();
+
+        assertThat(actual).isEqualTo(6L);
+    }
+
+    @Test
+    void shouldInvalidateOnlyCountsFavoritedByUser() {
+        var articleCounter = articleCounter(Duration.ofHours(1));
+        var user = UserSamples.sampleUser().id("user").build();
+        when(articleRepository.countArticlesFilteredBy(any(), any(), any(), any())).thenReturn(Mono.just(1L));
+        var favorited = new FindArticlesRequest().setFavoritedBy(user);
+        var all = new FindArticlesRequest();
+        articleCounter.count(favorited).block();
+        articleCounter.count(all).block();
+
+        articleCounter.invalidateFavoritedBy(user.getId());
+        articleCounter.count(favorited).block();
+        articleCounter.count(all).block();
+
+        verify(articleRepository, times(2)).countArticlesFilteredBy(any(), any(), any(), eq(user));
+        verify(articleRepository, times(1)).countArticlesFilteredBy(any(), any(), any(), isNull());
+    }
+
+    @Test
+    void shouldNotCacheCountsWithZeroTtl() {
+        var articleCounter = articleCounter(Duration.ZERO);
+        when(articleRepository.countArticlesFilteredBy(any(), any(), any(), any())).thenReturn(Mono.just(5L));
+
+        articleCounter.count(new FindArticlesRequest()).block();
+        articleCounter.count(new FindArticlesRequest()).block();
+
+        verify(articleRepository, times(2)).countArticlesFilteredBy(any(), any(), any(), any());
+    }
+
+    private ArticleCounter articleCounter(Duration ttl) {
+        return new ArticleCounter(articleRepository, new ArticleCountProperties(ttl, 100));
+    }
+}
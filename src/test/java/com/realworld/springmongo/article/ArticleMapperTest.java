@@ -0,0 +1,54 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.dto.ArticleView;
+import com.realworld.springmongo.user.UserRepository;
+import helpers.article.ArticleSamples;
+import helpers.user.UserSamples;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ArticleMapperTest {
+
+    UserRepository userRepository = Mockito.mock(UserRepository.class);
+    FavoritesCounter favoritesCounter = Mockito.mock(FavoritesCounter.class);
+    ArticleMapper articleMapper = new ArticleMapper(userRepository, favoritesCounter);
+
+    @BeforeEach
+    void setUp() {
+        when(favoritesCounter.countOf(any(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void shouldMapPageWithOneAuthorsQueryKeepingOrder() {
+        var firstAuthor = UserSamples.sampleUser().id("1").username("first").build();
+        var secondAuthor = UserSamples.sampleUser().id("2").username("second").build();
+        var articles = List.of(
+                ArticleSummary.of(ArticleSamples.sampleArticle().title("a").authorId("2").build()),
+                ArticleSummary.of(ArticleSamples.sampleArticle().title("b").authorId("1").build()),
+                ArticleSummary.of(ArticleSamples.sampleArticle().title("c").authorId("2").build())
+        );
+        when(userRepository.findAuthorsByArticles(anyCollection())).thenReturn(Flux.just(secondAuthor, firstAuthor));
+
+        var views = articleMapper.mapToArticleViews(articles, Optional.empty()).block();
+
+        assert views != null;
+        assertThat(views.stream().map(ArticleView::getTitle).collect(Collectors.toList()))
+                .isEqualTo(List.of("a", "b", "c"));
+        assertThat(views.stream().map(view -> view.getAuthor().getUsername()).collect(Collectors.toList()))
+                .isEqualTo(List.of("second", "first", "second"));
+        verify(userRepository, times(1)).findAuthorsByArticles(anyCollection());
+        verify(userRepository, never()).findById(any(String.class));
+    }
+}
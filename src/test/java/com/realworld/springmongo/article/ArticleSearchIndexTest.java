@@ -0,0 +1,89 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.ArticleSearchProperties.Engine;
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import helpers.article.ArticleSamples;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class ArticleSearchIndexTest {
+
+    ArticleRepository articleRepository = Mockito.mock(ArticleRepository.class);
+    ArticleSearchIndex articleSearchIndex = new ArticleSearchIndex(articleRepository, new ArticleSearchProperties(Engine.INVERTED_INDEX));
+
+    @Test
+    void shouldRankTitleMatchesFirst() {
+        articleSearchIndex.index(article("in-body", "Cooking", "Reactive streams are covered in the body", List.of()));
+        articleSearchIndex.index(article("in-title", "Reactive Spring", "nothing", List.of()));
+        articleSearchIndex.index(article("unrelated", "Gardening", "nothing", List.of("plants")));
+
+        var hits = articleSearchIndex.search("REACTIVE", 0, 10);
+
+        assertThat(hits.getArticleIds()).containsExactly("in-title", "in-body");
+        assertThat(hits.getTotalCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFindArticlesByTagsAndPageThem() {
+        articleSearchIndex.index(article("1", "First", "body", List.of("java")));
+        articleSearchIndex.index(article("2", "Second", "body", List.of("java")));
+        articleSearchIndex.index(article("3", "Third", "body", List.of("java")));
+
+        var hits = articleSearchIndex.search("java", 1, 1);
+
+        assertThat(hits.getArticleIds()).containsExactly("2");
+        assertThat(hits.getTotalCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldFollowUpdatedAndDeletedArticles() {
+        articleSearchIndex.index(article("1", "Old title", "body", List.of()));
+        articleSearchIndex.index(article("2", "Another old one", "body", List.of()));
+
+        articleSearchIndex.index(article("1", "New title", "body", List.of()));
+        articleSearchIndex.remove("2");
+
+        assertThat(articleSearchIndex.search("old", 0, 10).getArticleIds()).isEmpty();
+        assertThat(articleSearchIndex.search("new", 0, 10).getArticleIds()).containsExactly("1");
+    }
+
+    @Test
+    void shouldNotBringBackArticleDeletedWhileLoading() {
+        var loadedArticles = Sinks.many().unicast().<Article>onBackpressureBuffer();
+        when(articleRepository.findAll()).thenReturn(loadedArticles.asFlux());
+        articleSearchIndex.onApplicationEvent(null);
+
+        articleSearchIndex.remove("deleted");
+        loadedArticles.tryEmitNext(article("deleted", "Deleted title", "body", List.of()));
+        loadedArticles.tryEmitNext(article("kept", "Kept title", "body", List.of()));
+        loadedArticles.tryEmitComplete();
+
+        assertThat(articleSearchIndex.isLoaded()).isTrue();
+        assertThat(articleSearchIndex.search("title", 0, 10).getArticleIds()).containsExactly("kept");
+    }
+
+    @Test
+    void shouldIndexNothingWithTextIndexEngine() {
+        var textIndexSearch = new ArticleSearchIndex(articleRepository, new ArticleSearchProperties(Engine.TEXT_INDEX));
+
+        textIndexSearch.index(article("1", "Title", "body", List.of()));
+
+        assertThat(textIndexSearch.search("title", 0, 10).getTotalCount()).isZero();
+    }
+
+    private static Article article(String id, String title, String body, List<String> tags) {
+        return ArticleSamples.sampleArticle()
+                .id(id)
+                .title(title)
+                .description("")
+                .body(body)
+                .tags(tags)
+                .build();
+    }
+}
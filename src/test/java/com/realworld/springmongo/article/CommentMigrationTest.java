@@ -0,0 +1,79 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.CommentRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Import(CommentMigration.class)
+class CommentMigrationTest {
+
+    @Autowired
+    CommentMigration commentMigration;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), Article.class).block();
+        commentRepository.deleteAll().block();
+    }
+
+    @Test
+    void shouldMoveEmbeddedCommentsToCommentCollection() {
+        var articlesCount = 250;
+        var articles = IntStream.range(0, articlesCount)
+                .mapToObj(i -> articleWithEmbeddedComments("article-" + i, 2))
+                .collect(Collectors.toList());
+        mongoTemplate.insert(articles, mongoTemplate.getCollectionName(Article.class)).blockLast();
+
+        var migratedArticles = commentMigration.migrateAll().block();
+
+        assertThat(migratedArticles).isEqualTo(articlesCount);
+        assertThat(commentRepository.count().block()).isEqualTo(articlesCount * 2L);
+        var comments = commentRepository.findOldestArticleComments("article-7", 0, 10).collectList().block();
+        assertThat(comments).extracting(Comment::getId).containsExactly("article-7-comment-0", "article-7-comment-1");
+        assertThat(comments).extracting(Comment::getArticleId).containsOnly("article-7");
+        assertThat(commentMigration.migrateAll().block()).isZero();
+    }
+
+    @Test
+    void shouldMigrateArticleBeforeReadingItsComments() {
+        mongoTemplate.insert(articleWithEmbeddedComments("article", 3), mongoTemplate.getCollectionName(Article.class)).block();
+
+        commentMigration.migrateArticle("article").block();
+
+        assertThat(commentRepository.findOldestArticleComments("article", 0, 10).count().block()).isEqualTo(3);
+        var article = mongoTemplate.findById("article", Document.class, mongoTemplate.getCollectionName(Article.class)).block();
+        assert article != null;
+        assertThat(article.getList("comments", Document.class)).isEmpty();
+    }
+
+    private Document articleWithEmbeddedComments(String articleId, int commentsCount) {
+        var comments = IntStream.range(0, commentsCount)
+                .mapToObj(i -> new Document("_id", articleId + "-comment-" + i)
+                        .append("body", "comment " + i)
+                        .append("authorId", "author")
+                        .append("createdAt", new Date(1_000_000L + i))
+                        .append("updatedAt", new Date(1_000_000L + i)))
+                .collect(Collectors.toList());
+        return new Document("_id", articleId)
+                .append("title", articleId)
+                .append("slug", articleId)
+                .append("comments", comments);
+    }
+}
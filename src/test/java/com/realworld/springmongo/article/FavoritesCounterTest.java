@@ -0,0 +1,65 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import helpers.article.ArticleSamples;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class FavoritesCounterTest {
+
+    @Autowired
+    ArticleRepository articleRepository;
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    FavoritesCounter favoritesCounter;
+
+    @BeforeEach
+    void setUp() {
+        articleRepository.deleteAll().block();
+        var properties = new FavoritesCounterProperties(true, Duration.ofHours(1), 10_000, Duration.ofSeconds(10));
+        favoritesCounter = new FavoritesCounter(articleRepository, mongoTemplate, properties);
+    }
+
+    @Test
+    void shouldOverlayPendingDeltasAndWriteThemOnFlush() {
+        articleRepository.save(ArticleSamples.sampleArticle().id("hot").title("hot").favoritesCount(2).build()).block();
+        articleRepository.save(ArticleSamples.sampleArticle().id("cold").title("cold").favoritesCount(1).build()).block();
+
+        Flux.range(0, 100)
+                .flatMap(i -> favoritesCounter.increment("hot", 1))
+                .blockLast();
+        favoritesCounter.increment("cold", -1).block();
+
+        assertThat(favoritesCounter.countOf("hot", 2)).isEqualTo(102);
+        assertThat(favoritesCounter.countOf("cold", 1)).isEqualTo(0);
+        assertThat(articleRepository.findById("hot").block().getFavoritesCount()).isEqualTo(2);
+
+        favoritesCounter.flush().block();
+
+        assertThat(articleRepository.findById("hot").block().getFavoritesCount()).isEqualTo(102);
+        assertThat(articleRepository.findById("cold").block().getFavoritesCount()).isEqualTo(0);
+        assertThat(favoritesCounter.countOf("hot", 102)).isEqualTo(102);
+    }
+
+    @Test
+    void shouldWritePendingDeltasOnShutdown() {
+        var article = articleRepository.save(ArticleSamples.sampleArticle().id("shutdown").title("shutdown").favoritesCount(1).build()).block();
+        favoritesCounter.increment(article.getId(), 1).block();
+        favoritesCounter.increment(article.getId(), 1).block();
+
+        favoritesCounter.destroy();
+
+        assertThat(articleRepository.findById("shutdown").block().getFavoritesCount()).isEqualTo(3);
+        assertThat(favoritesCounter.countOf("shutdown", 3)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,76 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.dto.ArticleView;
+import com.realworld.springmongo.user.User;
+import helpers.article.ArticleSamples;
+import helpers.user.UserSamples;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveFeedTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    LiveFeed liveFeed = new LiveFeed(new LiveFeedProperties(2, Duration.ofHours(1)), meterRegistry);
+
+    User author = UserSamples.sampleUser().id("author").username("author").build();
+    User otherAuthor = UserSamples.sampleUser().id("other author").username("other author").build();
+    User follower = UserSamples.sampleUser().id("follower").followingIds(List.of(author.getId())).build();
+
+    @Test
+    void shouldPushOnlyArticlesOfFollowedAuthors() {
+        StepVerifier.create(liveFeed.connect(follower).map(ServerSentEvent::data))
+                .then(() -> {
+                    liveFeed.publish(article("followed"), author);
+                    liveFeed.publish(article("not followed"), otherAuthor);
+                })
+                .assertNext(article -> {
+                    assert article != null;
+                    assertThat(article.getTitle()).isEqualTo("followed");
+                    assertThat(article.getAuthor().isFollowing()).isTrue();
+                })
+                .then(() -> assertThat(meterRegistry.get(LiveFeed.CONNECTIONS_METRIC).gauge().value()).isEqualTo(1))
+                .thenCancel()
+                .verify();
+
+        assertThat(meterRegistry.get(LiveFeed.CONNECTIONS_METRIC).gauge().value()).isZero();
+        assertThat(meterRegistry.get(LiveFeed.FAN_OUT_METRIC).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropOldestArticlesOfSlowConnection() {
+        StepVerifier.create(liveFeed.connect(follower).map(ServerSentEvent::data).map(ArticleView::getTitle), 0)
+                .then(() -> List.of("1", "2", "3", "4").forEach(title -> liveFeed.publish(article(title), author)))
+                .thenRequest(10)
+                .expectNext("1", "3", "4")
+                .thenCancel()
+                .verify();
+
+        assertThat(meterRegistry.get(LiveFeed.DROPPED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepSlowConnectionOpenWhenHeartbeatsPileUp() {
+        var fastHeartbeatFeed = new LiveFeed(new LiveFeedProperties(2, Duration.ofMillis(10)), meterRegistry);
+
+        StepVerifier.create(fastHeartbeatFeed.connect(follower), 0)
+                .thenAwait(Duration.ofMillis(200))
+                .thenRequest(1)
+                .assertNext(event -> assertThat(event.comment()).isEqualTo("heartbeat"))
+                .thenCancel()
+                .verify();
+    }
+
+    private Article article(String title) {
+        return ArticleSamples.sampleArticle()
+                .title(title)
+                .authorId(author.getId())
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.user.User;
+import com.realworld.springmongo.user.UserRepository;
+import helpers.article.ArticleSamples;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class StaleFavoritesCleanupTest {
+
+    @Autowired
+    ArticleRepository articleRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    StaleFavoritesCleanup cleanup;
+
+    @BeforeEach
+    void setUp() {
+        articleRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+        var properties = new FavoritesCleanupProperties(true, Duration.ofHours(1), 3);
+        cleanup = new StaleFavoritesCleanup(mongoTemplate, articleRepository, userRepository, properties);
+    }
+
+    @Test
+    void shouldRemoveOnlyDeletedArticlesFromFavoritesOfAllBatches() {
+        var existing = articleRepository.save(ArticleSamples.sampleArticle().id("existing").build()).block();
+        var users = IntStream.range(0, 10)
+                .mapToObj(i -> User.builder()
+                        .id("user" + i)
+                        .username("user" + i)
+                        .email("user" + i + "@gmail.com")
+                        .encodedPassword("encoded password")
+                        .favoriteArticleIds(i % 2 == 0 ? List.of(existing.getId(), "deleted" + i) : List.of(existing.getId()))
+                        .build())
+                .collect(Collectors.toList());
+        userRepository.saveAll(users).blockLast();
+
+        var cleanedUsers = cleanup.cleanUp().block();
+
+        assertThat(cleanedUsers).isEqualTo(5);
+        assertThat(userRepository.findAll().collectList().block())
+                .allSatisfy(user -> assertThat(user.getFavoriteArticleIds()).containsExactly(existing.getId()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.realworld.springmongo.article;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realworld.springmongo.article.repository.TagRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class TagCatalogueTest {
+
+    TagRepository tagRepository = Mockito.mock(TagRepository.class);
+
+    @Test
+    void shouldLoadTagsOnceWhileTheyAreFresh() {
+        var tagCatalogue = tagCatalogue(Duration.ofHours(1));
+        when(tagRepository.findAll()).thenReturn(Flux.just(Tag.of("tag1"), Tag.of("tag2")));
+
+        var tags = tagCatalogue.getTags(null).block();
+        var json = tagCatalogue.getTagsJson(null).block();
+
+        assert tags != null && json != null;
+        assertThat(tags.getTags()).containsExactly("tag1", "tag2");
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo("{\"tags\":[\"tag1\",\"tag2\"]}");
+        verify(tagRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldServeStaleTagsAndRefreshThemInBackground() {
+        var tagCatalogue = tagCatalogue(Duration.ZERO);
+        when(tagRepository.findAll())
+                .thenReturn(Flux.just(Tag.of("tag1")))
+                .thenReturn(Flux.just(Tag.of("tag1"), Tag.of("tag2")));
+        tagCatalogue.getTags(null).block();
+
+        var stale = tagCatalogue.getTags(null).block();
+        var refreshed = tagCatalogue.getTags(null).block();
+
+        assert stale != null && refreshed != null;
+        assertThat(stale.getTags()).containsExactly("tag1");
+        assertThat(refreshed.getTags()).containsExactly("tag1", "tag2");
+    }
+
+    @Test
+    void shouldReturnMostUsedTagsFirst() {
+        var tagCatalogue = tagCatalogue(Duration.ofHours(1));
+        when(tagRepository.findAll()).thenReturn(Flux.just(Tag.of("rare", 1), Tag.of("popular", 10), Tag.of("common", 5)));
+
+        var top = tagCatalogue.getTags(2).block();
+        var all = tagCatalogue.getTags(null).block();
+        var moreThanAll = tagCatalogue.getTags(10).block();
+
+        assert top != null && all != null && moreThanAll != null;
+        assertThat(top.getTags()).containsExactly("popular", "common");
+        assertThat(all.getTags()).containsExactly("popular", "common", "rare");
+        assertThat(moreThanAll.getTags()).isEqualTo(all.getTags());
+    }
+
+    @Test
+    void shouldOrderTagsLeastUsedFirst() {
+        var tagCatalogue = tagCatalogue(Duration.ofHours(1));
+        when(tagRepository.findAll()).thenReturn(Flux.just(Tag.of("rare", 1), Tag.of("popular", 10), Tag.of("common", 5)));
+
+        var ordered = tagCatalogue.leastUsedFirst(List.of("popular", "common", "unknown", "rare")).block();
+
+        assertThat(ordered).containsExactly("unknown", "rare", "common", "popular");
+    }
+
+    @Test
+    void shouldKeepTagsAddedWhileRefreshing() {
+        var tagCatalogue = tagCatalogue(Duration.ofHours(1));
+        var refreshedTags = Sinks.many().unicast().<Tag>onBackpressureBuffer();
+        when(tagRepository.findAll())
+                .thenReturn(Flux.just(Tag.of("old")))
+                .thenReturn(refreshedTags.asFlux());
+        tagCatalogue.getTags(null).block();
+
+        tagCatalogue.refreshInBackground();
+        tagCatalogue.addNewTags(List.of("new"));
+        refreshedTags.tryEmitNext(Tag.of("old"));
+        refreshedTags.tryEmitComplete();
+
+        var tags = tagCatalogue.getTags(null).block();
+        assert tags != null;
+        assertThat(tags.getTags()).containsExactlyInAnyOrder("old", "new");
+    }
+
+    private TagCatalogue tagCatalogue(Duration refreshInterval) {
+        return new TagCatalogue(tagRepository, new ObjectMapper(), new TagCatalogueProperties(refreshInterval, Duration.ofHours(1)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.realworld.springmongo.article;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures latency percentiles of tag suggestions over 100k distinct tags with prefixes of one to four letters.
+ * Run with {@code ./gradlew runBenchmarks}, results are printed to the test output.
+ */
+@Tag("benchmark")
+class TagIndexBenchmark {
+
+    private static final int TAGS_COUNT = 100_000;
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+    private static final int LIMIT = 10;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void measureSuggestLatency() {
+        var tags = IntStream.range(0, TAGS_COUNT)
+                .mapToObj(i -> com.realworld.springmongo.article.Tag.of(randomWord(4 + random.nextInt(8)), random.nextInt(1000)))
+                .collect(Collectors.toMap(com.realworld.springmongo.article.Tag::getTagName, tag -> tag, (first, second) -> first))
+                .values();
+        var tagIndex = TagIndex.of(tags);
+        var prefixes = IntStream.range(0, 1000)
+                .mapToObj(i -> randomWord(1 + random.nextInt(4)))
+                .toArray(String[]::new);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            tagIndex.suggest(prefixes[i % prefixes.length], LIMIT);
+        }
+        var nanos = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            var start = System.nanoTime();
+            tagIndex.suggest(prefixes[i % prefixes.length], LIMIT);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("tags=%d p50=%.3fms p99=%.3fms max=%.3fms%n", tagIndex.size(),
+                nanos[MEASURED_ITERATIONS / 2] / 1_000_000.0,
+                nanos[MEASURED_ITERATIONS * 99 / 100] / 1_000_000.0,
+                nanos[MEASURED_ITERATIONS - 1] / 1_000_000.0);
+    }
+
+    private String randomWord(int length) {
+        var word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.realworld.springmongo.article;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagIndexTest {
+
+    private final TagIndex tagIndex = TagIndex.of(List.of(
+            Tag.of("java", 5),
+            Tag.of("javascript", 9),
+            Tag.of("jakarta", 5),
+            Tag.of("kotlin", 7),
+            Tag.of("ja", 1)
+    ));
+
+    @Test
+    void shouldSuggestTagsWithPrefixMostUsedFirst() {
+        assertThat(tagIndex.suggest("ja", 10)).containsExactly("javascript", "jakarta", "java", "ja");
+        assertThat(tagIndex.suggest("jav", 10)).containsExactly("javascript", "java");
+        assertThat(tagIndex.suggest("ja", 2)).containsExactly("javascript", "jakarta");
+        assertThat(tagIndex.suggest("", 2)).containsExactly("javascript", "kotlin");
+        assertThat(tagIndex.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldSuggestFromLargePrefixRanges() {
+        var tags = IntStream.range(0, 10_000)
+                .mapToObj(i -> Tag.of("tag" + i, i % 100))
+                .collect(Collectors.toList());
+        var largeIndex = TagIndex.of(tags);
+
+        var suggestions = largeIndex.suggest("tag", 3);
+
+        assertThat(suggestions).containsExactly("tag1099", "tag1199", "tag1299");
+        assertThat(largeIndex.suggest("tag99", 2)).containsExactly("tag99", "tag999");
+    }
+
+    @Test
+    void shouldAddNewTagsAsUsedOnce() {
+        var updated = tagIndex.withNewTags(List.of("jazz", "java", "jazz"));
+
+        assertThat(updated.size()).isEqualTo(6);
+        assertThat(updated.suggest("ja", 10)).containsExactly("javascript", "jakarta", "java", "ja", "jazz");
+        assertThat(updated.mostUsed(10)).containsExactly("javascript", "kotlin", "jakarta", "java", "ja", "jazz");
+        assertThat(tagIndex.withNewTags(List.of("java"))).isSameAs(tagIndex);
+    }
+}
@@ -0,0 +1,76 @@
+package com.realworld.springmongo.article;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimelineTest {
+
+    private static final Instant NOW = Instant.parse("2021-09-01T12:00:00Z");
+
+    @Test
+    void shouldReturnPageAfterCursorIncludingEntriesWithSameCreationTime() {
+        var timeline = new Timeline("owner", List.of("author"), List.of(
+                new Timeline.Entry("c", NOW),
+                new Timeline.Entry("b", NOW),
+                new Timeline.Entry("a", NOW.minusSeconds(1))
+        ));
+
+        var page = articleIds(timeline.findPageEntries(new ArticleCursor(NOW, "c"), 0, 2, 10));
+
+        assertThat(page).isEqualTo(Optional.of(List.of("b", "a")));
+    }
+
+    @Test
+    void shouldReturnShortPageWhenTimelineHoldsAllArticles() {
+        var timeline = new Timeline("owner", List.of("author"), entries(3));
+
+        var page = articleIds(timeline.findPageEntries(null, 2, 2, 10));
+
+        assertThat(page).isEqualTo(Optional.of(List.of("2")));
+    }
+
+    @Test
+    void shouldReturnEmptyWhenPageReachesSlicedOffEntries() {
+        var timeline = new Timeline("owner", List.of("author"), entries(3));
+
+        var page = articleIds(timeline.findPageEntries(null, 2, 2, 3));
+
+        assertThat(page).isEmpty();
+    }
+
+    @Test
+    void shouldReturnPageEntriesWithCreationTime() {
+        var timeline = new Timeline("owner", List.of("author"), entries(3));
+
+        var page = timeline.findPageEntries(null, 0, 2, 10);
+
+        assertThat(page).isEqualTo(Optional.of(List.of(new Timeline.Entry("0", NOW), new Timeline.Entry("1", NOW.minusSeconds(1)))));
+    }
+
+    @Test
+    void shouldCompareFollowingsIgnoringOrder() {
+        var timeline = new Timeline("owner", List.of("1", "2"), List.of());
+
+        assertThat(timeline.isBuiltFor(List.of("2", "1"))).isTrue();
+        assertThat(timeline.isBuiltFor(List.of("1"))).isFalse();
+    }
+
+    private Optional<List<String>> articleIds(Optional<List<Timeline.Entry>> page) {
+        return page.map(entries -> entries.stream()
+                .map(Timeline.Entry::getArticleId)
+                .collect(Collectors.toList()));
+    }
+
+    private List<Timeline.Entry> entries(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Timeline.Entry(String.valueOf(i), NOW.minusSeconds(i)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,50 @@
+package com.realworld.springmongo.article;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import com.realworld.springmongo.article.repository.TagRepository;
+import helpers.article.ArticleSamples;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class UnusedTagsCleanupTest {
+
+    @Autowired
+    TagRepository tagRepository;
+    @Autowired
+    ArticleRepository articleRepository;
+
+    UnusedTagsCleanup cleanup;
+
+    @BeforeEach
+    void setUp() {
+        tagRepository.deleteAll().block();
+        articleRepository.deleteAll().block();
+        var properties = new TagCatalogueProperties(Duration.ofHours(1), Duration.ofHours(1));
+        cleanup = new UnusedTagsCleanup(tagRepository, articleRepository, Mockito.mock(TagCatalogue.class), properties);
+    }
+
+    @Test
+    void shouldRecountTagWhoseIncrementWasLostInsteadOfDeletingIt() {
+        articleRepository.save(ArticleSamples.sampleArticle().tags(List.of("drifted")).build()).block();
+        tagRepository.incrementArticlesCounts(List.of("drifted", "unused"), 1).block();
+        tagRepository.incrementArticlesCounts(List.of("drifted", "unused"), -1).block();
+
+        var deletedTags = cleanup.cleanUp().block();
+
+        assertThat(deletedTags).isEqualTo(1);
+        assertThat(tagRepository.findAll().collectList().block().stream()
+                .collect(Collectors.toMap(Tag::getTagName, Tag::getArticlesCount)))
+                .isEqualTo(Map.of("drifted", 1L));
+    }
+}
@@ -1,7 +1,12 @@
 package com.realworld.springmongo.article.repository;
 
 import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.ArticleCursor;
+import com.realworld.springmongo.article.ArticleSummary;
+import com.realworld.springmongo.article.ArticleWithAuthor;
+import com.realworld.springmongo.article.TagMode;
 import com.realworld.springmongo.user.PasswordService;
+import com.realworld.springmongo.user.UserRepository;
 import helpers.article.ArticleSamples;
 import helpers.user.UserSamples;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +19,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -25,6 +31,8 @@ class ArticleRepositoryTest {
     private final Comparator<Article> mostRecent = Comparator.comparing(Article::getCreatedAt).reversed();
     @Autowired
     ArticleRepository articleRepository;
+    @Autowired
+    UserRepository userRepository;
 
     @BeforeEach
     void setUp() {
@@ -40,6 +48,7 @@ class ArticleRepositoryTest {
                 .mapToObj(i -> {
                     var time = Instant.now().plus(i, ChronoUnit.SECONDS);
                     var article = ArticleSamples.sampleArticle()
+                            .title(ArticleSamples.DEFAULT_ARTICLE_TITLE + "-" + i)
                             .createdAt(time)
                             .updatedAt(time)
                             .id(String.valueOf(i));
@@ -68,6 +77,7 @@ class ArticleRepositoryTest {
             var expected = createArticles(10, (article, i) -> article.authorId(String.valueOf(i))).stream()
                     .filter(article -> authorIds.contains(article.getAuthorId()))
                     .sorted(mostRecent)
+                    .map(ArticleSummary::of)
                     .collect(Collectors.toList());
             var actual = articleRepository.findNewestArticlesByAuthorIds(authorIds, 0, 20).collectList().block();
             assertThat(actual).isEqualTo(expected);
@@ -83,11 +93,70 @@ class ArticleRepositoryTest {
                     .sorted(mostRecent)
                     .skip(offset)
                     .limit(limit)
+                    .map(ArticleSummary::of)
                     .collect(Collectors.toList());
             var actual =
                     articleRepository.findNewestArticlesByAuthorIds(authorIds, offset, limit).collectList().block();
             assertThat(actual).isEqualTo(expected);
         }
+
+        @Test
+        void shouldReturnArticlesAfterCursor() {
+            var authorIds = List.of("1", "5", "6", "7", "3", "4", "8");
+            var limit = 3;
+            var articles = createArticles(10, (article, i) -> article.authorId(String.valueOf(i))).stream()
+                    .filter(article -> authorIds.contains(article.getAuthorId()))
+                    .sorted(mostRecent)
+                    .map(ArticleSummary::of)
+                    .collect(Collectors.toList());
+            var firstPage = articleRepository.findNewestArticlesByAuthorIds(authorIds, null, 0, limit).collectList().block();
+            var cursor = ArticleCursor.nextPage(firstPage, limit);
+            var expected = articles.stream()
+                    .skip(limit)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+
+            var actual = articleRepository.findNewestArticlesByAuthorIds(authorIds, cursor, 0, limit).collectList().block();
+
+            assertThat(firstPage).isEqualTo(articles.subList(0, limit));
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Nested
+    class FindNewestArticlesByAuthorIdsMerged {
+        @Test
+        void shouldReturnSameArticlesAsInQuery() {
+            var authorIds = List.of("0", "1", "2");
+            createArticles(15, (article, i) -> article.authorId(String.valueOf(i % 4)));
+            var expected = articleRepository.findNewestArticlesByAuthorIds(authorIds, 2, 5).collectList().block();
+
+            var actual = articleRepository.findNewestArticlesByAuthorIdsMerged(authorIds, null, 2, 5).collectList().block();
+
+            assertThat(actual).isEqualTo(expected);
+        }
+
+        @Test
+        void shouldReturnArticlesAfterCursorWithSameCreationTime() {
+            var time = Instant.now();
+            var authorIds = List.of("0", "1");
+            var limit = 3;
+            var articles = createArticles(10, (article, i) -> article.createdAt(time).authorId(String.valueOf(i % 3)));
+            var expected = articles.stream()
+                    .filter(article -> authorIds.contains(article.getAuthorId()))
+                    .sorted(Comparator.comparing(Article::getId).reversed())
+                    .skip(limit)
+                    .limit(limit)
+                    .map(ArticleSummary::of)
+                    .collect(Collectors.toList());
+            var firstPage = articleRepository.findNewestArticlesByAuthorIdsMerged(authorIds, null, 0, limit).collectList().block();
+
+            var actual = articleRepository.findNewestArticlesByAuthorIdsMerged(authorIds, ArticleCursor.nextPage(firstPage, limit), 0, limit)
+                    .collectList()
+                    .block();
+
+            assertThat(actual).isEqualTo(expected);
+        }
     }
 
     @Nested
@@ -98,6 +167,7 @@ class ArticleRepositoryTest {
             var expected = createArticles(10).stream()
                     .sorted(mostRecent)
                     .limit(size)
+                    .map(ArticleSummary::of)
                     .collect(Collectors.toList());
 
             var actual = articleRepository.findNewestArticlesFilteredBy(null, null, null, size, 0)
@@ -116,6 +186,7 @@ class ArticleRepositoryTest {
                     .sorted(mostRecent)
                     .skip(offset)
                     .limit(5)
+                    .map(ArticleSummary::of)
                     .collect(Collectors.toList());
 
             var actual = articleRepository.findNewestArticlesFilteredBy(null, null, null, size, offset)
@@ -126,6 +197,46 @@ class ArticleRepositoryTest {
             assertThat(actual).isEqualTo(expected);
         }
 
+        @Test
+        void shouldReturnSummariesWithListedFields() {
+            var article = createArticles(1, (it, i) -> it.tags(List.of("tag")).favoritesCount(3).authorId("author")).get(0);
+
+            var actual = articleRepository.findNewestArticlesFilteredBy(null, null, null, 1, 0).blockFirst();
+
+            assert actual != null;
+            assertThat(actual.getSlug()).isEqualTo(article.getSlug());
+            assertThat(actual.getTitle()).isEqualTo(article.getTitle());
+            assertThat(actual.getDescription()).isEqualTo(article.getDescription());
+            assertThat(actual.getBody()).isEqualTo(article.getBody());
+            assertThat(actual.getTags()).isEqualTo(article.getTags());
+            assertThat(actual.getFavoritesCount()).isEqualTo(3);
+            assertThat(actual.getAuthorId()).isEqualTo("author");
+            assertThat(actual.getCreatedAt()).isNotNull();
+            assertThat(actual.getUpdatedAt()).isNotNull();
+        }
+
+        @Test
+        void shouldReturnArticlesAfterCursorWithSameCreationTime() {
+            var time = Instant.now();
+            var limit = 4;
+            var expected = createArticles(10, (article, i) -> article.createdAt(time)).stream()
+                    .sorted(Comparator.comparing(Article::getId).reversed())
+                    .skip(limit)
+                    .limit(limit)
+                    .map(ArticleSummary::of)
+                    .collect(Collectors.toList());
+            var firstPage = articleRepository.findNewestArticlesFilteredBy(null, null, null, limit, 0)
+                    .collectList()
+                    .block();
+            var cursor = ArticleCursor.parse(ArticleCursor.nextPage(firstPage, limit).encode());
+
+            var actual = articleRepository.findNewestArticlesFilteredBy(null, null, null, cursor, limit, 0)
+                    .collectList()
+                    .block();
+
+            assertThat(actual).isEqualTo(expected);
+        }
+
         @Test
         void shouldReturnArticlesFilteredByTag() {
             var offset = 2;
@@ -139,6 +250,7 @@ class ArticleRepositoryTest {
                     .filter(article -> article.hasTag(expectedTag))
                     .sorted(mostRecent)
                     .skip(offset)
+                    .map(ArticleSummary::of)
                     .collect(Collectors.toList());
 
             var actual = articleRepository.findNewestArticlesFilteredBy(expectedTag, null, null, 0, offset)
@@ -149,6 +261,67 @@ class ArticleRepositoryTest {
             assertThat(actual).isEqualTo(expected);
         }
 
+        @Test
+        void shouldReturnArticlesWithAnyOfTags() {
+            var articles = createArticles(9, (article, i) -> {
+                if (i % 3 == 0) {
+                    article.tags(List.of("java", "reactive"));
+                } else if (i % 3 == 1) {
+                    article.tags(List.of("reactive"));
+                }
+            });
+            var expected = articles.stream()
+                    .filter(article -> article.hasTag("java") || article.hasTag("reactive"))
+                    .sorted(mostRecent)
+                    .map(ArticleSummary::of)
+                    .collect(Collectors.toList());
+
+            var actual = articleRepository.findNewestArticlesFilteredBy(List.of("java", "reactive"), TagMode.ANY, null, null, null, 20, 0)
+                    .collectList()
+                    .block();
+
+            assert actual != null;
+            assertThat(actual).isEqualTo(expected);
+        }
+
+        @Test
+        void shouldReturnArticlesWithAllOfTags() {
+            var articles = createArticles(9, (article, i) -> {
+                if (i % 3 == 0) {
+                    article.tags(List.of("java", "reactive"));
+                } else if (i % 3 == 1) {
+                    article.tags(List.of("reactive"));
+                }
+            });
+            var expected = articles.stream()
+                    .filter(article -> article.hasTag("java") && article.hasTag("reactive"))
+                    .sorted(mostRecent)
+                    .map(ArticleSummary::of)
+                    .collect(Collectors.toList());
+
+            var actual = articleRepository.findNewestArticlesFilteredBy(List.of("java", "reactive"), TagMode.ALL, null, null, null, 20, 0)
+                    .collectList()
+                    .block();
+
+            assert actual != null;
+            assertThat(actual).hasSize(3).isEqualTo(expected);
+        }
+
+        @Test
+        void shouldCountAllArticlesMatchingFilter() {
+            createArticles(9, (article, i) -> {
+                if (i % 3 == 0) {
+                    article.tags(List.of("java", "reactive"));
+                }
+            });
+
+            var withTag = articleRepository.countArticlesFilteredBy(List.of("java"), TagMode.ALL, null, null).block();
+            var all = articleRepository.countArticlesFilteredBy(List.of(), TagMode.ALL, null, null).block();
+
+            assertThat(withTag).isEqualTo(3L);
+            assertThat(all).isEqualTo(9L);
+        }
+
         @Test
         void shouldReturnArticlesFilteredByAuthor() {
             var expectedAuthor = "new author id";
@@ -162,6 +335,7 @@ class ArticleRepositoryTest {
                     .filter(article -> article.isAuthor(expectedAuthor))
                     .sorted(mostRecent)
                     .limit(limit)
+                    .map(ArticleSummary::of)
                     .collect(Collectors.toList());
 
 
@@ -182,6 +356,7 @@ class ArticleRepositoryTest {
                     .filter(user::isFavoriteArticle)
                     .sorted(mostRecent)
                     .limit(limit)
+                    .map(ArticleSummary::of)
                     .collect(Collectors.toList());
 
             var actual = articleRepository.findNewestArticlesFilteredBy(null, null, user, limit, 0)
@@ -217,6 +392,7 @@ class ArticleRepositoryTest {
                     })
                     .sorted(mostRecent)
                     .limit(limit)
+                    .map(ArticleSummary::of)
                     .collect(Collectors.toList());
 
             var actual = articleRepository.findNewestArticlesFilteredBy(expectedTag, expectedAuthor, user, limit, 0)
@@ -227,4 +403,95 @@ class ArticleRepositoryTest {
             assertThat(actual).isEqualTo(expected);
         }
     }
+
+    @Nested
+    class FindNewestArticlesWithAuthorsFilteredBy {
+        @Test
+        void shouldReturnArticlesWithAuthorProfilesOrderedByMostRecent() {
+            var limit = 3;
+            var author = UserSamples.sampleUser().id("joined author id").build();
+            userRepository.deleteAll().then(userRepository.save(author)).block();
+            var expected = createArticles(5, (article, i) -> article.authorId(author.getId())).stream()
+                    .sorted(mostRecent)
+                    .limit(limit)
+                    .map(ArticleSummary::of)
+                    .collect(Collectors.toList());
+
+            var actual = articleRepository.findNewestArticlesWithAuthorsFilteredBy(null, author.getId(), null, null, limit, 0)
+                    .collectList()
+                    .block();
+
+            assert actual != null;
+            assertThat(actual.stream().map(ArticleWithAuthor::getArticle).collect(Collectors.toList())).isEqualTo(expected);
+            assertThat(actual).allSatisfy(it -> {
+                assertThat(it.getAuthor()).isEqualTo(author);
+                assertThat(it.getAuthor().getUsername()).isEqualTo(author.getUsername());
+                assertThat(it.getAuthor().getEncodedPassword()).isNull();
+            });
+        }
+    }
+
+    @Nested
+    class SearchArticles {
+
+        @Test
+        void shouldFindArticlesByTextTitleMatchesFirst() {
+            var inBody = ArticleSamples.sampleArticle().title("cooking").body("reactive streams in the body").build();
+            var inTitle = ArticleSamples.sampleArticle().title("reactive spring").build();
+            var unrelated = ArticleSamples.sampleArticle().title("gardening").build();
+            articleRepository.saveAll(List.of(inBody, inTitle, unrelated)).blockLast();
+
+            var actual = articleRepository.searchArticles("reactive", 0, 10)
+                    .map(ArticleSummary::getId)
+                    .collectList()
+                    .block();
+            var count = articleRepository.countSearchedArticles("reactive").block();
+
+            assertThat(actual).containsExactly(inTitle.getId(), inBody.getId());
+            assertThat(count).isEqualTo(2L);
+        }
+    }
+
+    @Nested
+    class UpdateArticleFields {
+        @Test
+        void shouldSetOnlyGivenFieldsAndIncrementVersion() {
+            var article = createArticles(1, (it, i) -> it.updatedAt(Instant.now().minusSeconds(60)).authorId("author")).get(0);
+            articleRepository.incrementFavoritesCount(article.getId(), 5).block();
+
+            var actual = articleRepository.updateArticleFields(article.getSlug(), "author", 0L, Map.of("body", "new body")).block();
+
+            assert actual != null;
+            assertThat(actual.getBody()).isEqualTo("new body");
+            assertThat(actual.getTitle()).isEqualTo(article.getTitle());
+            assertThat(actual.getFavoritesCount()).isEqualTo(5);
+            assertThat(actual.getVersion()).isEqualTo(1L);
+            assertThat(actual.getUpdatedAt()).isAfter(article.getUpdatedAt());
+        }
+
+        @Test
+        void shouldNotUpdateArticleOfAnotherAuthorOrVersion() {
+            var article = createArticles(1, (it, i) -> it.authorId("author")).get(0);
+            articleRepository.updateArticleFields(article.getSlug(), "author", null, Map.of("body", "first")).block();
+
+            var byAnotherAuthor = articleRepository.updateArticleFields(article.getSlug(), "another author", null, Map.of("body", "second")).block();
+            var withStaleVersion = articleRepository.updateArticleFields(article.getSlug(), "author", 0L, Map.of("body", "second")).block();
+
+            assertThat(byAnotherAuthor).isNull();
+            assertThat(withStaleVersion).isNull();
+            assertThat(articleRepository.findById(article.getId()).block().getBody()).isEqualTo("first");
+        }
+
+        @Test
+        void shouldNotWriteWithoutFields() {
+            var article = createArticles(1, (it, i) -> it.authorId("author")).get(0);
+            var stored = articleRepository.findById(article.getId()).block();
+
+            var actual = articleRepository.updateArticleFields(article.getSlug(), "author", null, Map.of()).block();
+
+            assert actual != null && stored != null;
+            assertThat(actual.getVersion()).isEqualTo(stored.getVersion());
+            assertThat(actual.getUpdatedAt()).isEqualTo(stored.getUpdatedAt());
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package com.realworld.springmongo.article.repository;
+
+import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.ArticleCursor;
+import helpers.article.ArticleSamples;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the single authorId $in feed query with the per-author merge on a seeded database.
+ * Run with {@code ./gradlew runBenchmarks}, results are printed to the test output.
+ */
+@Tag("benchmark")
+@DataMongoTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FeedEnginesBenchmark {
+
+    private static final int AUTHORS_COUNT = 300;
+    private static final int ARTICLES_COUNT = 30_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    @Autowired
+    ArticleRepository articleRepository;
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    private final Random random = new Random(42);
+    private List<String> authorIds;
+
+    @BeforeAll
+    void seed() {
+        var indexResolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        indexResolver.resolveIndexFor(Article.class)
+                .forEach(index -> mongoTemplate.indexOps(Article.class).ensureIndex(index).block());
+        articleRepository.deleteAll().block();
+
+        authorIds = IntStream.range(0, AUTHORS_COUNT).mapToObj(i -> "author-" + i).collect(Collectors.toList());
+        var start = Instant.now().minus(ARTICLES_COUNT, ChronoUnit.MINUTES);
+        var articles = IntStream.range(0, ARTICLES_COUNT)
+                .mapToObj(i -> ArticleSamples.sampleArticle()
+                        .id("article-" + i)
+                        .title("article title " + i)
+                        .authorId(authorIds.get(random.nextInt(AUTHORS_COUNT)))
+                        .createdAt(start.plus(i, ChronoUnit.MINUTES))
+                        .updatedAt(start.plus(i, ChronoUnit.MINUTES))
+                        .build())
+                .collect(Collectors.toList());
+        articleRepository.saveAll(articles).blockLast();
+    }
+
+    @Test
+    void compareFeedEngines() {
+        for (var followingCount : List.of(10, 50, 200)) {
+            var following = authorIds.subList(0, followingCount);
+            var deepCursor = findDeepCursor(following);
+            for (var cursor : new ArticleCursor[]{null, deepCursor}) {
+                var inQuery = articleRepository.findNewestArticlesByAuthorIds(following, cursor, 0, PAGE_SIZE).collectList().block();
+                var merged = articleRepository.findNewestArticlesByAuthorIdsMerged(following, cursor, 0, PAGE_SIZE).collectList().block();
+                assertThat(merged).isEqualTo(inQuery);
+
+                var inQueryMillis = measure(() -> articleRepository.findNewestArticlesByAuthorIds(following, cursor, 0, PAGE_SIZE).collectList().block());
+                var mergedMillis = measure(() -> articleRepository.findNewestArticlesByAuthorIdsMerged(following, cursor, 0, PAGE_SIZE).collectList().block());
+                System.out.printf("following=%d page=%s in-query=%.2fms merge=%.2fms%n",
+                        followingCount, cursor == null ? "first" : "deep", inQueryMillis, mergedMillis);
+            }
+        }
+    }
+
+    @Nullable
+    private ArticleCursor findDeepCursor(List<String> following) {
+        var page = articleRepository.findNewestArticlesByAuthorIds(following, 20 * PAGE_SIZE, PAGE_SIZE).collectList().block();
+        return ArticleCursor.nextPage(page, PAGE_SIZE);
+    }
+
+    private double measure(Runnable feedQuery) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            feedQuery.run();
+        }
+        var start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            feedQuery.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+    }
+}
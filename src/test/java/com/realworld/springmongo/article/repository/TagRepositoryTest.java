@@ -1,13 +1,15 @@
 package com.realworld.springmongo.article.repository;
 
 import com.realworld.springmongo.article.Tag;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import reactor.core.publisher.Flux;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -17,13 +19,47 @@ class TagRepositoryTest {
     @Autowired
     TagRepository tagRepository;
 
+    @BeforeEach
+    void setUp() {
+        tagRepository.deleteAll().block();
+    }
+
+    @Test
+    void shouldCountArticlesOfEveryTag() {
+        tagRepository.incrementArticlesCounts(List.of("tag1", "tag1", "tag2", "tag2", "tag3"), 1).block();
+        tagRepository.incrementArticlesCounts(List.of("tag2", "tag3", "tag4"), 1).block();
+        tagRepository.incrementArticlesCounts(List.of("tag3", "missing"), -1).block();
+
+        assertThat(articlesCounts()).isEqualTo(Map.of("tag1", 1L, "tag2", 2L, "tag3", 1L, "tag4", 1L));
+    }
+
     @Test
-    void name() {
-        var tags = List.of("tag1", "tag1", "tag2", "tag2", "tag3");
-        var expectedTags = Set.of("tag1", "tag2", "tag3");
-        var returnedTags = tagRepository.saveAllTags(tags).map(Tag::getTagName).collectList().block();
-        var allTags = tagRepository.findAll().map(Tag::getTagName).collectList().block();
-        assertThat(new HashSet<>(returnedTags)).isEqualTo(expectedTags);
-        assertThat(new HashSet<>(allTags)).isEqualTo(expectedTags);
+    void shouldCountEveryIncrementUnderConcurrentUpserts() {
+        var tags = List.of("tag1", "tag2", "tag3");
+
+        Flux.range(0, 20)
+                .flatMap(i -> tagRepository.incrementArticlesCounts(tags, 1))
+                .blockLast();
+
+        assertThat(articlesCounts()).isEqualTo(Map.of("tag1", 20L, "tag2", 20L, "tag3", 20L));
+    }
+
+    @Test
+    void shouldDeleteOnlyUnusedTags() {
+        tagRepository.incrementArticlesCounts(List.of("used", "unused"), 1).block();
+        tagRepository.incrementArticlesCounts(List.of("unused"), -1).block();
+
+        var deletedTags = tagRepository.deleteUnusedTags().block();
+
+        assertThat(deletedTags).isEqualTo(1);
+        assertThat(articlesCounts()).isEqualTo(Map.of("used", 1L));
+    }
+
+    private Map<String, Long> articlesCounts() {
+        return tagRepository.findAll()
+                .collectList()
+                .block()
+                .stream()
+                .collect(Collectors.toMap(Tag::getTagName, Tag::getArticlesCount));
     }
-}
\ No newline at end of file
+}
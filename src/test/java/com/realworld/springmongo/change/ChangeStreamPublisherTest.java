@@ -0,0 +1,125 @@
+package com.realworld.springmongo.change;
+
+import com.mongodb.MongoCommandException;
+import com.realworld.springmongo.article.Article;
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import helpers.article.ArticleSamples;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Change streams need a replica set, so this test starts its own embedded MongoDB as a single-node replica set.
+ */
+@DataMongoTest(properties = "spring.mongodb.embedded.storage.repl-set-name=" + ChangeStreamPublisherTest.REPLICA_SET_NAME)
+class ChangeStreamPublisherTest {
+
+    static final String REPLICA_SET_NAME = "rs0";
+    private static final int ALREADY_INITIALIZED_ERROR_CODE = 23;
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+    @Autowired
+    ArticleRepository articleRepository;
+    @Value("${local.mongo.port}")
+    int mongoPort;
+
+    BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+    ChangeStreamPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        initiateReplicaSet();
+        mongoTemplate.dropCollection(ResumeTokenStore.COLLECTION_NAME).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.destroy();
+        }
+    }
+
+    @Test
+    void shouldPublishTypedArticleChanges() throws InterruptedException {
+        publisher = startPublisher();
+        var article = ArticleSamples.sampleArticle().title("change-stream-insert-delete").build();
+
+        articleRepository.save(article).block();
+        articleRepository.delete(article).block();
+
+        var inserted = nextArticleChange(article.getId());
+        var deleted = nextArticleChange(article.getId());
+        assertThat(inserted.isInsert()).isTrue();
+        assertThat(inserted.getDocument()).extracting(Article::getTitle).isEqualTo(article.getTitle());
+        assertThat(deleted.isDelete()).isTrue();
+        assertThat(deleted.getDocument()).isNull();
+    }
+
+    @Test
+    void shouldPublishChangesMadeWhileStoppedAfterRestart() throws InterruptedException {
+        publisher = startPublisher();
+        var beforeRestart = ArticleSamples.sampleArticle().title("change-stream-before-restart").build();
+        articleRepository.save(beforeRestart).block();
+        nextArticleChange(beforeRestart.getId());
+
+        publisher.destroy();
+        var whileStopped = ArticleSamples.sampleArticle().title("change-stream-while-stopped").build();
+        articleRepository.save(whileStopped).block();
+        publisher = startPublisher();
+
+        var resumed = events.poll(10, TimeUnit.SECONDS);
+        assertThat(resumed).isInstanceOf(ArticleChangedEvent.class);
+        assertThat(((ArticleChangedEvent) resumed).getDocumentId()).isEqualTo(whileStopped.getId());
+    }
+
+    private ChangeStreamPublisher startPublisher() {
+        var properties = new ChangeStreamProperties(true, "test", Duration.ofMillis(100));
+        var started = new ChangeStreamPublisher(mongoTemplate, new ResumeTokenStore(mongoTemplate), events::add, properties);
+        started.start();
+        return started;
+    }
+
+    /**
+     * Skips changes of other documents, a stream started without a saved token may begin with the previous test's writes.
+     */
+    private ArticleChangedEvent nextArticleChange(String articleId) throws InterruptedException {
+        while (true) {
+            var event = events.poll(10, TimeUnit.SECONDS);
+            assertThat(event).as("change of article %s", articleId).isNotNull();
+            if (event instanceof ArticleChangedEvent && articleId.equals(((ArticleChangedEvent) event).getDocumentId())) {
+                return (ArticleChangedEvent) event;
+            }
+        }
+    }
+
+    private void initiateReplicaSet() {
+        var admin = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin").block();
+        assert admin != null;
+        var config = new Document("_id", REPLICA_SET_NAME)
+                .append("members", List.of(new Document("_id", 0).append("host", "localhost:" + mongoPort)));
+        Mono.from(admin.runCommand(new Document("replSetInitiate", config)))
+                .onErrorResume(MongoCommandException.class, error -> error.getErrorCode() == ALREADY_INITIALIZED_ERROR_CODE
+                        ? Mono.empty()
+                        : Mono.error(error))
+                .block();
+        Mono.from(admin.runCommand(new Document("isMaster", 1)))
+                .filter(result -> result.getBoolean("ismaster", false))
+                .repeatWhenEmpty(300, attempts -> attempts.delayElements(Duration.ofMillis(100)))
+                .block();
+    }
+}
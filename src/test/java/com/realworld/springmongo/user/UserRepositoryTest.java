@@ -0,0 +1,87 @@
+package com.realworld.springmongo.user;
+
+import com.realworld.springmongo.article.repository.ArticleRepository;
+import helpers.article.ArticleSamples;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class UserRepositoryTest {
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ArticleRepository articleRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll().block();
+        articleRepository.deleteAll().block();
+    }
+
+    @Test
+    void shouldReportFavoriteChangeOnlyOnce() {
+        var user = saveUser("user");
+
+        assertThat(userRepository.addFavoriteArticleId(user.getId(), "article").block()).isTrue();
+        assertThat(userRepository.addFavoriteArticleId(user.getId(), "article").block()).isFalse();
+        assertThat(userRepository.findById(user.getId()).block().getFavoriteArticleIds()).containsExactly("article");
+
+        assertThat(userRepository.removeFavoriteArticleId(user.getId(), "article").block()).isTrue();
+        assertThat(userRepository.removeFavoriteArticleId(user.getId(), "article").block()).isFalse();
+        assertThat(userRepository.findById(user.getId()).block().getFavoriteArticleIds()).isEmpty();
+    }
+
+    @Test
+    void shouldCountEveryUserOnceUnderConcurrentRetriedFavorites() {
+        var article = articleRepository.save(ArticleSamples.sampleArticle().build()).block();
+        var users = IntStream.range(0, 100)
+                .mapToObj(i -> saveUser("user" + i))
+                .collect(Collectors.toList());
+
+        Flux.fromIterable(users)
+                .concatWith(Flux.fromIterable(users))
+                .flatMap(user -> userRepository.addFavoriteArticleId(user.getId(), article.getId())
+                        .flatMap(added -> added ? articleRepository.incrementFavoritesCount(article.getId(), 1) : Mono.just(article)), 64)
+                .blockLast();
+
+        assertThat(articleRepository.findById(article.getId()).block().getFavoritesCount()).isEqualTo(users.size());
+    }
+
+    @Test
+    void shouldKeepFavoritesWrittenWhileFollowingAndUpdatingProfile() {
+        var user = saveUser("user");
+        var sessionUser = userRepository.findById(user.getId()).block();
+        sessionUser.setBio("new bio");
+
+        Flux.merge(
+                Flux.range(0, 50).flatMap(i -> userRepository.addFavoriteArticleId(user.getId(), "article" + i)),
+                Flux.range(0, 50).flatMap(i -> userRepository.addFollowingId(user.getId(), "author" + i)),
+                Flux.range(0, 10).flatMap(i -> userRepository.updateProfile(sessionUser)))
+                .blockLast();
+
+        var saved = userRepository.findById(user.getId()).block();
+        assertThat(saved.getFavoriteArticleIds()).hasSize(50);
+        assertThat(saved.getFollowingIds()).hasSize(50);
+        assertThat(saved.getBio()).isEqualTo("new bio");
+        assertThat(userRepository.addFavoriteArticleId(user.getId(), "article0").block()).isFalse();
+    }
+
+    private User saveUser(String username) {
+        return userRepository.save(User.builder()
+                .id(username)
+                .username(username)
+                .email(username + "@gmail.com")
+                .encodedPassword("encoded password")
+                .build()).block();
+    }
+}
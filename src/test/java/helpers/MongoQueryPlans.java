@@ -0,0 +1,147 @@
+package helpers;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records read and write commands sent to MongoDB and explains them to check which plan stages they use.
+ */
+public class MongoQueryPlans implements CommandListener {
+    public static final String COLLSCAN = "COLLSCAN";
+    public static final String SORT = "SORT";
+
+    private static final Set<String> EXPLAINED_COMMANDS = Set.of("find", "aggregate", "count", "update", "delete", "findAndModify");
+    private static final Set<String> SESSION_FIELDS = Set.of("lsid", "txnNumber");
+
+    private final Queue<BsonDocument> recordedCommands = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!EXPLAINED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        var command = new BsonDocument();
+        event.getCommand().clone().forEach((key, value) -> {
+            if (!key.startsWith("$") && !SESSION_FIELDS.contains(key)) {
+                command.put(key, value);
+            }
+        });
+        recordedCommands.add(command);
+    }
+
+    public List<BsonDocument> takeRecordedCommands() {
+        var commands = new ArrayList<BsonDocument>();
+        BsonDocument command;
+        while ((command = recordedCommands.poll()) != null) {
+            commands.add(command);
+        }
+        return commands;
+    }
+
+    public void clear() {
+        recordedCommands.clear();
+    }
+
+    public QueryPlan explain(ReactiveMongoTemplate mongoTemplate, BsonDocument command) {
+        var explain = new BsonDocument("explain", command)
+                .append("verbosity", new BsonString("executionStats"));
+        var result = mongoTemplate.getMongoDatabase()
+                .flatMap(database -> Mono.from(database.runCommand(explain)))
+                .block();
+        return QueryPlan.of(command, result);
+    }
+
+    public static class QueryPlan {
+        private final BsonDocument command;
+        private final Set<String> winningPlanStages;
+        private final long docsExamined;
+        private final long returned;
+
+        private QueryPlan(BsonDocument command, Set<String> winningPlanStages, long docsExamined, long returned) {
+            this.command = command;
+            this.winningPlanStages = winningPlanStages;
+            this.docsExamined = docsExamined;
+            this.returned = returned;
+        }
+
+        static QueryPlan of(BsonDocument command, Document explain) {
+            var stages = new LinkedHashSet<String>();
+            collectWinningPlanStages(explain, false, stages);
+            var executionStats = findExecutionStats(explain);
+            var docsExamined = executionStats.map(it -> ((Number) it.get("totalDocsExamined")).longValue()).orElse(0L);
+            var returned = executionStats.map(it -> ((Number) it.get("nReturned")).longValue()).orElse(0L);
+            return new QueryPlan(command, stages, docsExamined, returned);
+        }
+
+        public Set<String> getWinningPlanStages() {
+            return winningPlanStages;
+        }
+
+        public long getDocsExamined() {
+            return docsExamined;
+        }
+
+        public long getReturned() {
+            return returned;
+        }
+
+        public double getDocsExaminedToReturnedRatio() {
+            return returned == 0 ? docsExamined : (double) docsExamined / returned;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("stages=%s docsExamined=%d nReturned=%d ratio=%.2f command=%s",
+                    winningPlanStages, docsExamined, returned, getDocsExaminedToReturnedRatio(), command.toJson());
+        }
+
+        private static void collectWinningPlanStages(Object node, boolean insideWinningPlan, Set<String> stages) {
+            if (node instanceof Document) {
+                ((Document) node).forEach((key, value) -> {
+                    if (insideWinningPlan && "stage".equals(key)) {
+                        stages.add((String) value);
+                    }
+                    if (!"rejectedPlans".equals(key)) {
+                        collectWinningPlanStages(value, insideWinningPlan || "winningPlan".equals(key), stages);
+                    }
+                });
+            } else if (node instanceof List) {
+                ((List<?>) node).forEach(it -> collectWinningPlanStages(it, insideWinningPlan, stages));
+            }
+        }
+
+        private static Optional<Document> findExecutionStats(Object node) {
+            if (node instanceof Document) {
+                var document = (Document) node;
+                var executionStats = document.get("executionStats");
+                if (executionStats instanceof Document) {
+                    return Optional.of((Document) executionStats);
+                }
+                return document.values().stream()
+                        .map(QueryPlan::findExecutionStats)
+                        .flatMap(Optional::stream)
+                        .findFirst();
+            }
+            if (node instanceof List) {
+                return ((List<?>) node).stream()
+                        .map(QueryPlan::findExecutionStats)
+                        .flatMap(Optional::stream)
+                        .findFirst();
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.realworld.springmongo.article.dto.*;
 import com.realworld.springmongo.user.dto.UserView;
 import helpers.TokenHelper;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -35,12 +36,33 @@ public class ArticleApiSupport {
         return result.getResponseBody().getContent();
     }
 
+    public List<ArticleView> streamArticles(FindArticlesRequest request) {
+        return client
+                .get()
+                .uri(builder -> builder
+                        .path("/api/articles")
+                        .queryParamIfPresent("tag", ofNullable(request.getTag()))
+                        .queryParamIfPresent("tags", ofNullable(request.getTags()))
+                        .queryParamIfPresent("author", ofNullable(request.getAuthor()))
+                        .queryParamIfPresent("favorited", ofNullable(request.getFavorited()))
+                        .build()
+                )
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ArticleView.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+    }
+
     public EntityExchangeResult<MultipleArticlesView> findArticles(FindArticlesRequest request, String authToken) {
         var requestSpec = client
                 .get()
                 .uri(builder -> builder
                         .path("/api/articles")
                         .queryParamIfPresent("tag", ofNullable(request.getTag()))
+                        .queryParamIfPresent("tags", ofNullable(request.getTags()))
                         .queryParamIfPresent("author", ofNullable(request.getAuthor()))
                         .queryParamIfPresent("favorited", ofNullable(request.getFavorited()))
                         .build()
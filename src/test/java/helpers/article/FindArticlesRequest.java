@@ -5,6 +5,7 @@ public class FindArticlesRequest {
     private int offset = 20;
     private String author = null;
     private String tag = null;
+    private String tags = null;
     private String favorited = null;
 
     public int getLimit() {
@@ -45,6 +46,15 @@ public class FindArticlesRequest {
 
     }
 
+    public String getTags() {
+        return tags;
+    }
+
+    public FindArticlesRequest setTags(String tags) {
+        this.tags = tags;
+        return this;
+    }
+
     public String getFavorited() {
         return favorited;
     }